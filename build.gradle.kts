@@ -53,8 +53,10 @@ dependencies {
     implementation("commons-io", "commons-io", "2.15.1")
     implementation("org.junit.jupiter", "junit-jupiter-api", "5.11.4")
     implementation("org.assertj", "assertj-core", "3.27.0")
+    compileOnly("org.junit.jupiter", "junit-jupiter-params", "5.11.4")
 
     testImplementation("org.junit.jupiter", "junit-jupiter-engine", "5.11.4")
+    testImplementation("org.junit.jupiter", "junit-jupiter-params", "5.11.4")
     testImplementation("org.mockito", "mockito-core", "5.8.0")
 }
 
@@ -0,0 +1,61 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Источник аргументов параметризованного теста: файлы-фикстуры каталога ресурсов (или файловой системы).
+ * Каталог перечисляется лениво, каждая фикстура передается в тест как {@link Fixture},
+ * содержимое которой читается только внутри теста. На время вызова теста имя фикстуры запоминается
+ * ({@link BslFixturesExtension}), поэтому время ее анализа учитывается в истории стоимости фикстур
+ * <pre>
+ * &#64;ParameterizedTest
+ * &#64;BslFixtures(value = "modules", extensions = "bsl")
+ * void test(Fixture fixture) {
+ *   testParser.assertThat(fixture).matches();
+ * }
+ * </pre>
+ */
+@Target({ElementType.ANNOTATION_TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ArgumentsSource(BslFixturesProvider.class)
+@ExtendWith(BslFixturesExtension.class)
+public @interface BslFixtures {
+  /**
+   * @return Каталог ресурсов либо путь к каталогу в файловой системе
+   */
+  String value();
+
+  /**
+   * @return Расширения файлов без точки. Если не заданы, используются все файлы
+   */
+  String[] extensions() default {};
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+import java.lang.reflect.Method;
+
+/**
+ * Расширение JUnit 5, подключаемое {@link BslFixtures}: на время вызова теста запоминает имя фикстуры
+ * из его аргументов, чтобы время любого анализа ее текста, в том числе переданного строкой
+ * или выполненного {@link TestLexer}, учитывалось в метриках и истории стоимости фикстур
+ */
+public class BslFixturesExtension implements InvocationInterceptor {
+
+  @Override
+  public void interceptTestTemplateMethod(Invocation<Void> invocation,
+                                          ReflectiveInvocationContext<Method> invocationContext,
+                                          ExtensionContext extensionContext) throws Throwable {
+    var fixture = invocationContext.getArguments().stream()
+      .filter(Fixture.class::isInstance)
+      .map(Fixture.class::cast)
+      .findFirst();
+    if (fixture.isEmpty()) {
+      invocation.proceed();
+      return;
+    }
+
+    FixtureContext.with(fixture.get().getName(), () -> proceed(invocation));
+  }
+
+  @SneakyThrows
+  private static Void proceed(Invocation<Void> invocation) {
+    return invocation.proceed();
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+
+import java.util.stream.Stream;
+
+/**
+ * Поставщик аргументов для {@link BslFixtures}. Учитывает текущий сегмент фикстур ({@link FixtureShards})
+ */
+public class BslFixturesProvider implements ArgumentsProvider, AnnotationConsumer<BslFixtures> {
+  private BslFixtures fixtures;
+
+  @Override
+  public void accept(BslFixtures fixtures) {
+    this.fixtures = fixtures;
+  }
+
+  @Override
+  public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+    return FixtureShards.currentShard(ResourceUtils.fixtures(fixtures.value(), fixtures.extensions()))
+      .map(Arguments::of);
+  }
+}
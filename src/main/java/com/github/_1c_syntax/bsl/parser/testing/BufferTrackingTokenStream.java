@@ -0,0 +1,52 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+
+/**
+ * Небуферизованный поток токенов, запоминающий наибольшее количество одновременно удерживаемых токенов.
+ * Буфер растет, пока парсер удерживает метки для просмотра вперед, поэтому его пик показывает
+ * глубину просмотра, а не размер текста
+ */
+class BufferTrackingTokenStream extends UnbufferedTokenStream {
+  private int peakBufferedTokens;
+
+  BufferTrackingTokenStream(TokenSource tokenSource) {
+    super(tokenSource);
+  }
+
+  /**
+   * @return Наибольшее количество токенов в буфере
+   */
+  int getPeakBufferedTokens() {
+    return peakBufferedTokens;
+  }
+
+  @Override
+  protected void add(Token t) {
+    super.add(t);
+    peakBufferedTokens = Math.max(peakBufferedTokens, n);
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * Поток символов над общим массивом символов Unicode. Массив только читается, поэтому несколько потоков
+ * с собственными позициями могут читать один текст из разных нитей без копирования
+ */
+final class CodePointArrayCharStream implements CharStream {
+  private final int[] codePoints;
+  private int position;
+
+  CodePointArrayCharStream(int[] codePoints) {
+    this.codePoints = codePoints;
+  }
+
+  @Override
+  public void consume() {
+    if (position >= codePoints.length) {
+      throw new IllegalStateException("cannot consume EOF");
+    }
+    position++;
+  }
+
+  @Override
+  public int LA(int i) {
+    if (i == 0) {
+      return 0;
+    }
+    var index = i > 0 ? position + i - 1 : position + i;
+    if (index < 0 || index >= codePoints.length) {
+      return IntStream.EOF;
+    }
+    return codePoints[index];
+  }
+
+  @Override
+  public int mark() {
+    return -1;
+  }
+
+  @Override
+  public void release(int marker) {
+    // массив хранится целиком, освобождать нечего
+  }
+
+  @Override
+  public int index() {
+    return position;
+  }
+
+  @Override
+  public void seek(int index) {
+    position = Math.min(Math.max(index, 0), codePoints.length);
+  }
+
+  @Override
+  public int size() {
+    return codePoints.length;
+  }
+
+  @Override
+  public String getSourceName() {
+    return IntStream.UNKNOWN_SOURCE_NAME;
+  }
+
+  @Override
+  public String getText(Interval interval) {
+    var start = Math.max(interval.a, 0);
+    var stop = Math.min(interval.b, codePoints.length - 1);
+    if (start > stop) {
+      return "";
+    }
+    return new String(codePoints, start, stop - start + 1);
+  }
+}
@@ -0,0 +1,327 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Компактное хранилище токенов: атрибуты токенов хранятся в параллельных массивах примитивов,
+ * а не отдельными объектами. Текст токенов не копируется и читается из исходного потока символов по запросу,
+ * сохраняется только текст, отличающийся от исходного (установленный действиями лексера).
+ * Элементы списка - легковесные представления, создаваемые при обращении, поэтому сравнивать их
+ * следует по атрибутам, а не по ссылке
+ */
+public class CompactTokenList extends AbstractList<Token> implements RandomAccess {
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  private final CharStream input;
+
+  private int size;
+  private int[] types;
+  private int[] channels;
+  private int[] starts;
+  private int[] stops;
+  private int[] lines;
+  private int[] columns;
+
+  /**
+   * Текст токенов, отличающийся от их фрагмента исходного потока, по индексам токенов. Создается при первой записи
+   */
+  private Map<Integer, String> texts;
+
+  /**
+   * @param input Поток символов, из которого прочитаны токены
+   */
+  public CompactTokenList(CharStream input) {
+    this(input, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param input    Поток символов, из которого прочитаны токены
+   * @param capacity Ожидаемое количество токенов
+   */
+  public CompactTokenList(CharStream input, int capacity) {
+    this.input = input;
+    var initialCapacity = Math.max(capacity, 1);
+    types = new int[initialCapacity];
+    channels = new int[initialCapacity];
+    starts = new int[initialCapacity];
+    stops = new int[initialCapacity];
+    lines = new int[initialCapacity];
+    columns = new int[initialCapacity];
+  }
+
+  /**
+   * Добавляет атрибуты токена в хранилище. Сам объект токена не сохраняется
+   *
+   * @param token Токен
+   */
+  void append(Token token) {
+    append(token.getType(), token.getChannel(), token.getStartIndex(), token.getStopIndex(),
+      token.getLine(), token.getCharPositionInLine());
+
+    var text = token.getText();
+    if (text != null && !text.equals(inputText(token.getStartIndex(), token.getStopIndex()))) {
+      putText(size - 1, text);
+    }
+  }
+
+  void append(int type, int channel, int start, int stop, int line, int column) {
+    if (size == types.length) {
+      grow();
+    }
+    types[size] = type;
+    channels[size] = channel;
+    starts[size] = start;
+    stops[size] = stop;
+    lines[size] = line;
+    columns[size] = column;
+    size++;
+  }
+
+  /**
+   * Запоминает текст токена, отличающийся от его фрагмента исходного потока
+   *
+   * @param index Индекс токена
+   * @param text  Текст токена
+   */
+  void putText(int index, String text) {
+    checkIndex(index);
+    if (texts == null) {
+      texts = new HashMap<>();
+    }
+    texts.put(index, text);
+  }
+
+  /**
+   * @return Текст токенов, отличающийся от исходного, по индексам токенов
+   */
+  Map<Integer, String> explicitTexts() {
+    return texts == null ? Collections.emptyMap() : Collections.unmodifiableMap(texts);
+  }
+
+  /**
+   * Освобождает неиспользуемый резерв массивов после окончания чтения
+   */
+  void trimToSize() {
+    types = Arrays.copyOf(types, size);
+    channels = Arrays.copyOf(channels, size);
+    starts = Arrays.copyOf(starts, size);
+    stops = Arrays.copyOf(stops, size);
+    lines = Arrays.copyOf(lines, size);
+    columns = Arrays.copyOf(columns, size);
+  }
+
+  @Override
+  public Token get(int index) {
+    checkIndex(index);
+    return new TokenView(index);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param index Индекс токена
+   * @return Тип токена
+   */
+  public int type(int index) {
+    checkIndex(index);
+    return types[index];
+  }
+
+  /**
+   * @param index Индекс токена
+   * @return Канал токена
+   */
+  public int channel(int index) {
+    checkIndex(index);
+    return channels[index];
+  }
+
+  /**
+   * @param index Индекс токена
+   * @return Смещение первого символа токена
+   */
+  public int startIndex(int index) {
+    checkIndex(index);
+    return starts[index];
+  }
+
+  /**
+   * @param index Индекс токена
+   * @return Смещение последнего символа токена
+   */
+  public int stopIndex(int index) {
+    checkIndex(index);
+    return stops[index];
+  }
+
+  /**
+   * @param index Индекс токена
+   * @return Номер строки токена
+   */
+  public int line(int index) {
+    checkIndex(index);
+    return lines[index];
+  }
+
+  /**
+   * @param index Индекс токена
+   * @return Позиция токена в строке
+   */
+  public int column(int index) {
+    checkIndex(index);
+    return columns[index];
+  }
+
+  /**
+   * Возвращает текст токена: установленный лексером либо прочитанный из исходного потока символов
+   *
+   * @param index Индекс токена
+   * @return Текст токена
+   */
+  public String text(int index) {
+    checkIndex(index);
+    if (texts != null) {
+      var text = texts.get(index);
+      if (text != null) {
+        return text;
+      }
+    }
+    return inputText(starts[index], stops[index]);
+  }
+
+  private String inputText(int start, int stop) {
+    if (input == null) {
+      return null;
+    }
+
+    var length = input.size();
+    if (start < length && stop < length) {
+      return input.getText(Interval.of(start, stop));
+    } else {
+      return "<EOF>";
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+
+  private void grow() {
+    var capacity = types.length + (types.length >> 1) + 1;
+    types = Arrays.copyOf(types, capacity);
+    channels = Arrays.copyOf(channels, capacity);
+    starts = Arrays.copyOf(starts, capacity);
+    stops = Arrays.copyOf(stops, capacity);
+    lines = Arrays.copyOf(lines, capacity);
+    columns = Arrays.copyOf(columns, capacity);
+  }
+
+  /**
+   * Легковесное представление токена, читающее атрибуты из массивов хранилища
+   */
+  private final class TokenView implements Token {
+    private final int index;
+
+    private TokenView(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getText() {
+      return text(index);
+    }
+
+    @Override
+    public int getType() {
+      return types[index];
+    }
+
+    @Override
+    public int getLine() {
+      return lines[index];
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+      return columns[index];
+    }
+
+    @Override
+    public int getChannel() {
+      return channels[index];
+    }
+
+    @Override
+    public int getTokenIndex() {
+      return index;
+    }
+
+    @Override
+    public int getStartIndex() {
+      return starts[index];
+    }
+
+    @Override
+    public int getStopIndex() {
+      return stops[index];
+    }
+
+    /**
+     * Источник токенов не хранится, чтобы не удерживать лексер
+     *
+     * @return null
+     */
+    @Override
+    public TokenSource getTokenSource() {
+      return null;
+    }
+
+    @Override
+    public CharStream getInputStream() {
+      return input;
+    }
+
+    @Override
+    public String toString() {
+      return "[@" + index + "," + getStartIndex() + ":" + getStopIndex() + "='" + getText() + "',<" + getType()
+        + ">," + (getChannel() > 0 ? "channel=" + getChannel() + "," : "") + getLine() + ":" + getCharPositionInLine()
+        + "]";
+    }
+  }
+}
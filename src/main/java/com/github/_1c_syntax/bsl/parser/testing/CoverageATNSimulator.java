@@ -0,0 +1,49 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+
+/**
+ * Симулятор ATN парсера, учитывающий выбранные альтернативы решений в покрытии грамматики.
+ * adaptivePredict вызывается и при попадании в DFA, поэтому учитывается каждое предсказание,
+ * а не только вычисленные симуляцией
+ */
+class CoverageATNSimulator extends ParserATNSimulator {
+  private final GrammarCoverage coverage;
+
+  CoverageATNSimulator(Parser parser, ATN atn, GrammarCoverage coverage) {
+    super(parser, atn);
+    this.coverage = coverage;
+  }
+
+  @Override
+  public int adaptivePredict(TokenStream input, int decision, ParserRuleContext outerContext) {
+    var alternative = super.adaptivePredict(input, decision, outerContext);
+    coverage.recordAlternative(decision, alternative);
+    return alternative;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Обертка стратегии обработки ошибок, учитывающая альтернативы решений LL(1). Сгенерированный парсер
+ * выбирает их оператором switch по LA(1) без вызова adaptivePredict, но перед этим вызывает
+ * {@link #sync(Parser)} в состоянии решения. Остальные методы передаются исходной стратегии
+ */
+class CoverageErrorStrategy implements ANTLRErrorStrategy {
+  private final ANTLRErrorStrategy delegate;
+  private final GrammarCoverage coverage;
+
+  CoverageErrorStrategy(ANTLRErrorStrategy delegate, GrammarCoverage coverage) {
+    this.delegate = delegate;
+    this.coverage = coverage;
+  }
+
+  @Override
+  public void sync(Parser recognizer) throws RecognitionException {
+    delegate.sync(recognizer);
+    coverage.recordLL1Alternative(recognizer.getState(), recognizer.getInputStream().LA(1));
+  }
+
+  @Override
+  public void reset(Parser recognizer) {
+    delegate.reset(recognizer);
+  }
+
+  @Override
+  public Token recoverInline(Parser recognizer) throws RecognitionException {
+    return delegate.recoverInline(recognizer);
+  }
+
+  @Override
+  public void recover(Parser recognizer, RecognitionException e) throws RecognitionException {
+    delegate.recover(recognizer, e);
+  }
+
+  @Override
+  public boolean inErrorRecoveryMode(Parser recognizer) {
+    return delegate.inErrorRecoveryMode(recognizer);
+  }
+
+  @Override
+  public void reportMatch(Parser recognizer) {
+    delegate.reportMatch(recognizer);
+  }
+
+  @Override
+  public void reportError(Parser recognizer, RecognitionException e) {
+    delegate.reportError(recognizer, e);
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Getter;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.InputMismatchException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Стратегия обработки ошибок, прерывающая разбор на первой синтаксической ошибке.
+ * В отличие от {@link BailErrorStrategy} запоминает ошибочный токен и стек правил,
+ * а также не уведомляет слушателей ошибок, чтобы не тратить время на формирование сообщений
+ */
+class FailFastErrorStrategy extends BailErrorStrategy {
+
+  /**
+   * Первая обнаруженная ошибка либо null, если разбор прошел без ошибок
+   */
+  @Getter
+  private SyntaxError syntaxError;
+
+  @Override
+  public void reportError(Parser recognizer, RecognitionException e) {
+    // сообщения об ошибках не формируются, разбор будет прерван в recover
+  }
+
+  @Override
+  public void recover(Parser recognizer, RecognitionException e) {
+    remember(recognizer, e.getOffendingToken(), e);
+    super.recover(recognizer, e);
+  }
+
+  @Override
+  public Token recoverInline(Parser recognizer) throws RecognitionException {
+    var exception = new InputMismatchException(recognizer);
+    remember(recognizer, exception.getOffendingToken(), exception);
+    return super.recoverInline(recognizer);
+  }
+
+  private void remember(Parser recognizer, Token token, RecognitionException e) {
+    if (syntaxError == null) {
+      syntaxError = new SyntaxError(token, recognizer.getRuleInvocationStack(), e);
+    }
+  }
+}
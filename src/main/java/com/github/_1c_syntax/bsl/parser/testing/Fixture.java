@@ -0,0 +1,73 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Файл-фикстура. Содержимое не хранится и читается при каждом обращении к {@link #content()},
+ * поэтому перечисление больших наборов фикстур не требует памяти под их тексты
+ */
+@EqualsAndHashCode(of = "name")
+public final class Fixture {
+  /**
+   * Имя фикстуры относительно корня ресурсов (или переданного каталога), с разделителем /
+   */
+  @Getter
+  private final String name;
+
+  /**
+   * Путь к файлу фикстуры
+   */
+  @Getter
+  private final Path path;
+
+  Fixture(String name, Path path) {
+    this.name = name;
+    this.path = path;
+  }
+
+  /**
+   * Читает содержимое фикстуры
+   *
+   * @return Прочитанное содержимое
+   */
+  public String content() {
+    try {
+      return Files.readString(path, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.function.Supplier;
+
+/**
+ * Имя фикстуры, обрабатываемой текущим потоком. Используется для привязки событий и метрик
+ * лексического и синтаксического анализа к исходному файлу
+ */
+@UtilityClass
+class FixtureContext {
+  private final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  /**
+   * @return Имя текущей фикстуры либо null, если анализируется строка
+   */
+  String current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Выполняет действие, запоминая имя фикстуры на время его выполнения
+   *
+   * @param fixture Имя фикстуры
+   * @param action  Действие
+   * @param <T>     Тип результата
+   * @return Результат действия
+   */
+  <T> T with(String fixture, Supplier<T> action) {
+    var previous = CURRENT.get();
+    CURRENT.set(fixture);
+    try {
+      return action.get();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * История стоимости лексического и синтаксического анализа фикстур (суммарное время этапов в наносекундах),
+ * хранимая в локальном файле. Используется для сбалансированного разбиения фикстур ({@link FixtureShards}).
+ * <p>
+ * Путь к файлу истории задается системным свойством {@value #COSTS_PROPERTY} (по умолчанию {@value #DEFAULT_PATH}).
+ * Во время прогона история только читается, поэтому все форки разбивают фикстуры по одному и тому же снимку.
+ * Свойство {@value #RECORD_PROPERTY} включает запись: true - в файл {@value #DEFAULT_RECORD_PATH}, иначе
+ * в указанный файл, который должен отличаться от файла истории. Время этапов, выполненных для фикстур,
+ * накапливается и при завершении JVM объединяется с файлом записи, куда переносятся и записи истории
+ * по фикстурам, не разбиравшимся ни в одном форке. После прогона файл записи заменяет историю
+ */
+public final class FixtureCosts {
+  /**
+   * Системное свойство с путем к файлу истории
+   */
+  public static final String COSTS_PROPERTY = "bsl.parser.testing.costs";
+
+  /**
+   * Системное свойство, включающее запись истории: true либо путь к файлу записи
+   */
+  public static final String RECORD_PROPERTY = "bsl.parser.testing.costs.record";
+
+  /**
+   * Путь к файлу истории по умолчанию
+   */
+  public static final String DEFAULT_PATH = "build/bsl-parser-testing-costs.properties";
+
+  /**
+   * Путь к файлу записи по умолчанию
+   */
+  public static final String DEFAULT_RECORD_PATH = "build/bsl-parser-testing-costs.recorded.properties";
+
+  private static final FixtureCosts INSTANCE = createDefault();
+
+  /**
+   * Путь к файлу истории
+   */
+  @Getter
+  private final Path path;
+
+  /**
+   * Путь к файлу записи либо null, если история открыта только для чтения
+   */
+  @Getter
+  private final Path recordPath;
+
+  /**
+   * Признак накопления стоимости фикстур
+   */
+  @Getter
+  @Setter
+  private volatile boolean recording;
+
+  private final Map<String, LongAdder> measured = new ConcurrentHashMap<>();
+  private Map<String, Long> history;
+
+  private FixtureCosts(Path path, Path recordPath) {
+    if (recordPath != null && recordPath.toAbsolutePath().normalize().equals(path.toAbsolutePath().normalize())) {
+      throw new IllegalArgumentException("Cost record file must differ from the history file: " + path);
+    }
+    this.path = path;
+    this.recordPath = recordPath;
+  }
+
+  /**
+   * @return История, настроенная системными свойствами
+   */
+  public static FixtureCosts getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Открывает историю в указанном файле только для чтения
+   *
+   * @param path Путь к файлу истории
+   * @return История
+   */
+  public static FixtureCosts open(Path path) {
+    return new FixtureCosts(path, null);
+  }
+
+  /**
+   * Открывает историю с записью накопленной стоимости в отдельный файл
+   *
+   * @param path       Путь к файлу истории
+   * @param recordPath Путь к файлу записи
+   * @return История
+   */
+  public static FixtureCosts open(Path path, Path recordPath) {
+    return new FixtureCosts(path, recordPath);
+  }
+
+  /**
+   * Возвращает стоимость фикстуры по истории. Файл читается при первом обращении, чтобы все сегменты
+   * одного запуска видели одинаковые значения
+   *
+   * @param fixture Имя фикстуры
+   * @return Стоимость в наносекундах либо null, если фикстуры нет в истории
+   */
+  public synchronized Long cost(String fixture) {
+    return history().get(fixture);
+  }
+
+  /**
+   * Учитывает время этапа анализа фикстуры
+   *
+   * @param fixture Имя фикстуры
+   * @param nanos   Длительность в наносекундах
+   */
+  public void record(String fixture, long nanos) {
+    measured.computeIfAbsent(fixture, key -> new LongAdder()).add(nanos);
+  }
+
+  /**
+   * Объединяет накопленную стоимость с файлом записи, дополняя его записями истории.
+   * Файл записи блокируется на время объединения, так как его могут обновлять параллельные форки.
+   * Файл истории не изменяется
+   */
+  public synchronized void save() {
+    if (recordPath == null) {
+      throw new IllegalStateException("Cost history is read-only: " + path);
+    }
+    if (measured.isEmpty()) {
+      return;
+    }
+
+    try {
+      var parent = recordPath.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+
+      try (var channel = FileChannel.open(recordPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE); var lock = channel.lock()) {
+        var content = ByteBuffer.allocate((int) channel.size());
+        while (content.hasRemaining() && channel.read(content) >= 0) {
+          // читаем файл целиком
+        }
+
+        var costs = parse(new String(content.array(), StandardCharsets.UTF_8));
+        history().forEach(costs::putIfAbsent);
+        measured.forEach((fixture, nanos) -> costs.put(fixture, nanos.sum()));
+
+        var builder = new StringBuilder("# Fixture lex and parse cost, nanoseconds\n");
+        costs.forEach((fixture, nanos) -> builder.append(PerformanceBaseline.escape(fixture)).append('=').append(nanos).append('\n'));
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8)), 0);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Map<String, Long> history() {
+    if (history == null) {
+      history = Collections.unmodifiableMap(read());
+    }
+    return history;
+  }
+
+  private static FixtureCosts createDefault() {
+    var path = Path.of(System.getProperty(COSTS_PROPERTY, DEFAULT_PATH));
+    var record = System.getProperty(RECORD_PROPERTY);
+    if (record == null || record.isBlank() || "false".equalsIgnoreCase(record)) {
+      return open(path);
+    }
+
+    var costs = open(path, Path.of("true".equalsIgnoreCase(record) ? DEFAULT_RECORD_PATH : record));
+    costs.setRecording(true);
+    Runtime.getRuntime().addShutdownHook(new Thread(costs::save));
+    return costs;
+  }
+
+  private Map<String, Long> read() {
+    if (!Files.exists(path)) {
+      return new TreeMap<>();
+    }
+
+    try {
+      return parse(Files.readString(path, StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Map<String, Long> parse(String content) throws IOException {
+    var properties = new Properties();
+    properties.load(new StringReader(content));
+    var costs = new TreeMap<String, Long>();
+    properties.stringPropertyNames().forEach(fixture -> costs.put(fixture,
+      Long.parseLong(properties.getProperty(fixture).trim())));
+    return costs;
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Разбиение фикстур на сбалансированные по стоимости сегменты для параллельных форков.
+ * Фикстуры распределяются жадно, начиная с самых дорогих, в наименее загруженный сегмент (LPT).
+ * Стоимость берется из истории ({@link FixtureCosts}), для фикстур без истории оценивается по размеру файла.
+ * <p>
+ * Текущий сегмент задается системным свойством {@value #SHARD_PROPERTY} в виде "номер/количество"
+ * (номер с 0), например для Gradle: {@code systemProperty("bsl.parser.testing.shard", "1/4")}.
+ * Источник {@link BslFixtures} учитывает его автоматически
+ */
+@UtilityClass
+public class FixtureShards {
+  /**
+   * Системное свойство с текущим сегментом
+   */
+  public final String SHARD_PROPERTY = "bsl.parser.testing.shard";
+
+  /**
+   * Распределяет элементы по сегментам методом LPT. Порядок элементов внутри сегмента сохраняется
+   *
+   * @param items      Элементы
+   * @param shardCount Количество сегментов
+   * @param cost       Стоимость элемента
+   * @param <T>        Тип элемента
+   * @return Сегменты
+   */
+  public <T> List<List<T>> split(List<T> items, int shardCount, ToLongFunction<T> cost) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("Wrong shard count: " + shardCount);
+    }
+
+    var costs = new long[items.size()];
+    var order = new ArrayList<Integer>(items.size());
+    for (var i = 0; i < items.size(); i++) {
+      costs[i] = cost.applyAsLong(items.get(i));
+      order.add(i);
+    }
+    order.sort(Comparator.<Integer>comparingLong(index -> costs[index]).reversed()
+      .thenComparing(Comparator.naturalOrder()));
+
+    // сегменты упорядочены по загрузке, затем по номеру, чтобы распределение было воспроизводимым
+    var loads = new long[shardCount];
+    var shards = new PriorityQueue<Integer>(Comparator.<Integer>comparingLong(shard -> loads[shard])
+      .thenComparing(Comparator.naturalOrder()));
+    for (var shard = 0; shard < shardCount; shard++) {
+      shards.add(shard);
+    }
+
+    var assignment = new int[items.size()];
+    for (var index : order) {
+      var shard = shards.poll();
+      assignment[index] = shard;
+      loads[shard] += costs[index];
+      shards.add(shard);
+    }
+
+    var result = new ArrayList<List<T>>(shardCount);
+    for (var shard = 0; shard < shardCount; shard++) {
+      result.add(new ArrayList<>());
+    }
+    for (var i = 0; i < items.size(); i++) {
+      result.get(assignment[i]).add(items.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Возвращает фикстуры указанного сегмента
+   *
+   * @param fixtures   Все фикстуры
+   * @param shard      Номер сегмента (с 0)
+   * @param shardCount Количество сегментов
+   * @param costs      История стоимости
+   * @return Фикстуры сегмента
+   */
+  public List<Fixture> shard(List<Fixture> fixtures, int shard, int shardCount, FixtureCosts costs) {
+    if (shard < 0 || shard >= shardCount) {
+      throw new IllegalArgumentException("Wrong shard: " + shard + "/" + shardCount);
+    }
+
+    var sizes = new HashMap<Fixture, Long>();
+    fixtures.forEach(fixture -> sizes.put(fixture, size(fixture)));
+
+    // стоимость байта для фикстур без истории оценивается по фикстурам с историей
+    var knownNanos = 0L;
+    var knownBytes = 0L;
+    for (var fixture : fixtures) {
+      var cost = costs.cost(fixture.getName());
+      if (cost != null) {
+        knownNanos += cost;
+        knownBytes += sizes.get(fixture);
+      }
+    }
+    var nanosPerByte = knownNanos == 0 || knownBytes == 0 ? 1.0 : (double) knownNanos / knownBytes;
+
+    return split(fixtures, shardCount, fixture -> {
+      var cost = costs.cost(fixture.getName());
+      return cost == null ? (long) (sizes.get(fixture) * nanosPerByte) : cost;
+    }).get(shard);
+  }
+
+  /**
+   * Оставляет в потоке фикстуры текущего сегмента, заданного системным свойством {@value #SHARD_PROPERTY}.
+   * Если свойство не задано, поток возвращается без изменений
+   *
+   * @param fixtures Фикстуры
+   * @return Фикстуры текущего сегмента
+   */
+  public Stream<Fixture> currentShard(Stream<Fixture> fixtures) {
+    var value = System.getProperty(SHARD_PROPERTY);
+    if (value == null || value.isBlank()) {
+      return fixtures;
+    }
+
+    var parts = value.split("/");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("Wrong " + SHARD_PROPERTY + ": " + value + ", expected index/count");
+    }
+
+    List<Fixture> all;
+    try (fixtures) {
+      all = fixtures.toList();
+    }
+    return shard(all, Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+      FixtureCosts.getInstance()).stream();
+  }
+
+  private long size(Fixture fixture) {
+    try {
+      return Files.size(fixture.getPath());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,434 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Getter;
+import lombok.Value;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.DecisionState;
+import org.antlr.v4.runtime.atn.LL1Analyzer;
+import org.antlr.v4.runtime.atn.StarLoopbackState;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Покрытие грамматики тестами в рамках JVM: какие рулы парсера, альтернативы решений ATN и типы токенов лексера
+ * встретились при разборе. Счетчики создаются один раз на класс распознавателя по его ATN, все экземпляры
+ * парсеров и лексеров класса, в том числе из разных потоков, пишут в одни {@link LongAdder}.
+ * <p>
+ * Рулы учитываются слушателем разбора, альтернативы - симулятором ATN при вызове adaptivePredict.
+ * Решения LL(1) генерируются в виде switch без обращения к симулятору, их альтернативы определяются
+ * по LA(1) в момент синхронизации стратегии обработки ошибок перед решением.
+ * <p>
+ * Сбор включается системным свойством {@value #REPORT_PROPERTY} с путем к файлу отчета (JSON), который
+ * записывается при завершении JVM, или программно через {@link #setEnabled(boolean)}
+ */
+public final class GrammarCoverage {
+  /**
+   * Системное свойство с путем к файлу отчета
+   */
+  public static final String REPORT_PROPERTY = "bsl.parser.testing.coverage";
+
+  private static final Map<Class<?>, GrammarCoverage> COVERAGES = new ConcurrentHashMap<>();
+  private static volatile boolean enabled;
+
+  static {
+    var reportPath = System.getProperty(REPORT_PROPERTY);
+    if (reportPath != null && !reportPath.isBlank()) {
+      enabled = true;
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> writeReport(Path.of(reportPath))));
+    }
+  }
+
+  /**
+   * Имя класса распознавателя
+   */
+  @Getter
+  private final String grammar;
+
+  private final String[] ruleNames;
+  private final LongAdder[] rules;
+  private final int[] decisionRules;
+  private final LongAdder[][] alternatives;
+
+  /**
+   * Множества LA(1) альтернатив решений LL(1), null для остальных решений
+   */
+  private final IntervalSet[][] ll1Lookahead;
+  private final Vocabulary vocabulary;
+  private final LongAdder[] tokens;
+  private final ATN atn;
+
+  private GrammarCoverage(Recognizer<?, ?> recognizer) {
+    grammar = recognizer.getClass().getName();
+    atn = recognizer.getInterpreter() == null ? null : recognizer.getInterpreter().atn;
+
+    if (recognizer instanceof Parser) {
+      ruleNames = recognizer.getRuleNames();
+      rules = counters(ruleNames.length);
+      var decisions = atn == null ? 0 : atn.getNumberOfDecisions();
+      decisionRules = new int[decisions];
+      alternatives = new LongAdder[decisions][];
+      ll1Lookahead = new IntervalSet[decisions][];
+      var analyzer = atn == null ? null : new LL1Analyzer(atn);
+      for (var decision = 0; decision < decisions; decision++) {
+        var state = atn.decisionToState.get(decision);
+        decisionRules[decision] = state.ruleIndex;
+        alternatives[decision] = counters(state.getNumberOfTransitions() + 1);
+        var lookahead = analyzer.getDecisionLookahead(state);
+        ll1Lookahead[decision] = isLL1(lookahead) ? lookahead : null;
+      }
+    } else {
+      ruleNames = new String[0];
+      rules = new LongAdder[0];
+      decisionRules = new int[0];
+      alternatives = new LongAdder[0][];
+      ll1Lookahead = new IntervalSet[0][];
+    }
+
+    vocabulary = recognizer.getVocabulary();
+    tokens = recognizer instanceof Lexer ? counters(vocabulary.getMaxTokenType() + 1) : new LongAdder[0];
+  }
+
+  /**
+   * @return Признак сбора покрытия
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Включает или выключает сбор покрытия
+   *
+   * @param enabled Признак сбора
+   */
+  public static void setEnabled(boolean enabled) {
+    GrammarCoverage.enabled = enabled;
+  }
+
+  /**
+   * Возвращает покрытие грамматики распознавателя, создавая его при первом обращении
+   *
+   * @param recognizer Лексер или парсер
+   * @return Покрытие
+   */
+  public static GrammarCoverage of(Recognizer<?, ?> recognizer) {
+    return COVERAGES.computeIfAbsent(recognizer.getClass(), clazz -> new GrammarCoverage(recognizer));
+  }
+
+  /**
+   * Очищает накопленное покрытие всех грамматик
+   */
+  public static void reset() {
+    COVERAGES.clear();
+  }
+
+  /**
+   * Формирует отчеты о покрытии всех грамматик, встретившихся в JVM
+   *
+   * @return Отчеты, упорядоченные по имени грамматики
+   */
+  public static List<CoverageReport> reports() {
+    return COVERAGES.values().stream()
+      .map(GrammarCoverage::report)
+      .sorted(Comparator.comparing(CoverageReport::getGrammar))
+      .toList();
+  }
+
+  /**
+   * Записывает отчеты о покрытии всех грамматик в файл (JSON)
+   *
+   * @param path Путь к файлу отчета
+   */
+  public static void writeReport(Path path) {
+    var builder = new StringBuilder("[");
+    var reports = reports();
+    for (var i = 0; i < reports.size(); i++) {
+      var report = reports.get(i);
+      builder.append(i == 0 ? "\n" : ",\n")
+        .append("  {\"grammar\": ").append(ParsingMetrics.json(report.getGrammar()))
+        .append(",\n   \"rules\": ").append(report.getRules())
+        .append(", \"coveredRules\": ").append(report.getCoveredRules())
+        .append(", \"alternatives\": ").append(report.getAlternatives())
+        .append(", \"coveredAlternatives\": ").append(report.getCoveredAlternatives())
+        .append(", \"tokens\": ").append(report.getTokens())
+        .append(", \"coveredTokens\": ").append(report.getCoveredTokens())
+        .append(",\n   \"uncoveredRules\": ").append(jsonArray(report.getUncoveredRules()))
+        .append(",\n   \"uncoveredAlternatives\": ").append(jsonArray(report.getUncoveredAlternatives()))
+        .append(",\n   \"uncoveredTokens\": ").append(jsonArray(report.getUncoveredTokens()))
+        .append('}');
+    }
+    builder.append("\n]\n");
+
+    try {
+      var parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Files.writeString(path, builder.toString(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Подключает учет покрытия к парсеру: слушатель входа в рулы, симулятор, учитывающий альтернативы,
+   * и стратегию обработки ошибок, учитывающую альтернативы решений LL(1)
+   *
+   * @param parser Парсер
+   */
+  void instrument(Parser parser) {
+    parser.addParseListener(new RuleListener(this));
+    if (atn != null) {
+      parser.setInterpreter(new CoverageATNSimulator(parser, atn, this));
+      parser.setErrorHandler(new CoverageErrorStrategy(parser.getErrorHandler(), this));
+    }
+  }
+
+  /**
+   * Учитывает вход в рул
+   *
+   * @param ruleIndex Идентификатор рула
+   */
+  void recordRule(int ruleIndex) {
+    if (ruleIndex >= 0 && ruleIndex < rules.length) {
+      rules[ruleIndex].increment();
+    }
+  }
+
+  /**
+   * Учитывает выбор альтернативы решения
+   *
+   * @param decision    Номер решения
+   * @param alternative Номер альтернативы (с 1)
+   */
+  void recordAlternative(int decision, int alternative) {
+    if (decision >= 0 && decision < alternatives.length
+      && alternative > 0 && alternative < alternatives[decision].length) {
+      alternatives[decision][alternative].increment();
+    }
+  }
+
+  /**
+   * Учитывает альтернативу решения LL(1), выбираемую по следующему токену. Для состояния возврата цикла
+   * учитывается решение входа в цикл. Состояния, не являющиеся решениями LL(1), пропускаются:
+   * их альтернативы учитывает симулятор
+   *
+   * @param stateNumber Текущее состояние парсера
+   * @param symbol      Тип следующего токена
+   */
+  void recordLL1Alternative(int stateNumber, int symbol) {
+    if (atn == null || stateNumber < 0 || stateNumber >= atn.states.size()) {
+      return;
+    }
+
+    var state = atn.states.get(stateNumber);
+    if (state instanceof StarLoopbackState loopbackState) {
+      state = loopbackState.getLoopEntryState();
+    }
+    if (!(state instanceof DecisionState decisionState)
+      || decisionState.decision < 0 || decisionState.decision >= ll1Lookahead.length) {
+      return;
+    }
+
+    var lookahead = ll1Lookahead[decisionState.decision];
+    if (lookahead == null) {
+      return;
+    }
+    for (var alternative = 0; alternative < lookahead.length; alternative++) {
+      if (lookahead[alternative].contains(symbol)) {
+        recordAlternative(decisionState.decision, alternative + 1);
+        return;
+      }
+    }
+    // токен из контекста вызова рула: выбрана альтернатива, допускающая выход из рула
+    for (var alternative = 0; alternative < lookahead.length; alternative++) {
+      if (lookahead[alternative].contains(Token.EPSILON)) {
+        recordAlternative(decisionState.decision, alternative + 1);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Учитывает типы прочитанных токенов. Количества сначала суммируются локально,
+   * чтобы обращаться к общим счетчикам один раз на тип
+   *
+   * @param tokenList Токены
+   */
+  void recordTokens(List<? extends Token> tokenList) {
+    var counts = new int[tokens.length];
+    for (var token : tokenList) {
+      var type = token.getType();
+      if (type > 0 && type < counts.length) {
+        counts[type]++;
+      }
+    }
+    for (var type = 1; type < counts.length; type++) {
+      if (counts[type] > 0) {
+        tokens[type].add(counts[type]);
+      }
+    }
+  }
+
+  /**
+   * Формирует отчет о покрытии грамматики
+   *
+   * @return Отчет
+   */
+  public CoverageReport report() {
+    var uncoveredRules = new ArrayList<String>();
+    for (var rule = 0; rule < rules.length; rule++) {
+      if (rules[rule].sum() == 0) {
+        uncoveredRules.add(ruleNames[rule]);
+      }
+    }
+
+    var alternativeCount = 0;
+    var uncoveredAlternatives = new ArrayList<String>();
+    for (var decision = 0; decision < alternatives.length; decision++) {
+      for (var alternative = 1; alternative < alternatives[decision].length; alternative++) {
+        alternativeCount++;
+        if (alternatives[decision][alternative].sum() == 0) {
+          uncoveredAlternatives.add(ruleName(decisionRules[decision]) + " decision " + decision
+            + " alt " + alternative);
+        }
+      }
+    }
+
+    var tokenCount = Math.max(tokens.length - 1, 0);
+    var uncoveredTokens = new ArrayList<String>();
+    for (var type = 1; type < tokens.length; type++) {
+      if (tokens[type].sum() == 0) {
+        uncoveredTokens.add(vocabulary.getDisplayName(type));
+      }
+    }
+
+    return new CoverageReport(grammar,
+      rules.length, rules.length - uncoveredRules.size(),
+      alternativeCount, alternativeCount - uncoveredAlternatives.size(),
+      tokenCount, tokenCount - uncoveredTokens.size(),
+      uncoveredRules, uncoveredAlternatives, uncoveredTokens);
+  }
+
+  private String ruleName(int ruleIndex) {
+    return ruleIndex >= 0 && ruleIndex < ruleNames.length ? ruleNames[ruleIndex] : String.valueOf(ruleIndex);
+  }
+
+  private static boolean isLL1(IntervalSet[] lookahead) {
+    if (lookahead == null) {
+      return false;
+    }
+
+    var seen = new IntervalSet();
+    for (var set : lookahead) {
+      if (set == null || !set.and(seen).isNil()) {
+        return false;
+      }
+      seen.addAll(set);
+    }
+    return true;
+  }
+
+  private static LongAdder[] counters(int size) {
+    var counters = new LongAdder[size];
+    Arrays.setAll(counters, index -> new LongAdder());
+    return counters;
+  }
+
+  private static String jsonArray(List<String> values) {
+    var builder = new StringBuilder("[");
+    for (var i = 0; i < values.size(); i++) {
+      builder.append(i == 0 ? "" : ", ").append(ParsingMetrics.json(values.get(i)));
+    }
+    return builder.append(']').toString();
+  }
+
+  /**
+   * Слушатель разбора, учитывающий вход в рулы
+   */
+  private static final class RuleListener implements ParseTreeListener {
+    private final GrammarCoverage coverage;
+
+    private RuleListener(GrammarCoverage coverage) {
+      this.coverage = coverage;
+    }
+
+    @Override
+    public void enterEveryRule(ParserRuleContext ctx) {
+      coverage.recordRule(ctx.getRuleIndex());
+    }
+
+    @Override
+    public void visitTerminal(TerminalNode node) {
+      // не используется
+    }
+
+    @Override
+    public void visitErrorNode(ErrorNode node) {
+      // не используется
+    }
+
+    @Override
+    public void exitEveryRule(ParserRuleContext ctx) {
+      // не используется
+    }
+  }
+
+  /**
+   * Отчет о покрытии грамматики. Альтернативы обозначаются как "рул decision N alt M"
+   */
+  @Value
+  public static class CoverageReport {
+    String grammar;
+    int rules;
+    int coveredRules;
+    int alternatives;
+    int coveredAlternatives;
+    int tokens;
+    int coveredTokens;
+    List<String> uncoveredRules;
+    List<String> uncoveredAlternatives;
+    List<String> uncoveredTokens;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Внедряет в параметр теста {@link TestParser} или {@link TestLexer} указанной грамматики.
+ * Экземпляры создаются один раз на поток выполнения тестов и переиспользуются всеми тестовыми классами JVM
+ * (см. {@link GrammarUnderTestExtension})
+ * <pre>
+ * void test(&#64;GrammarUnderTest(parser = BSLParser.class, lexer = BSLLexer.class)
+ *           TestParser&lt;BSLParser, BSLLexer&gt; testParser) {
+ *   testParser.assertThat("А = 1;").matches();
+ * }
+ * </pre>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ExtendWith(GrammarUnderTestExtension.class)
+public @interface GrammarUnderTest {
+  /**
+   * @return Класс парсера. Не требуется для внедрения {@link TestLexer}
+   */
+  Class<? extends Parser> parser() default Parser.class;
+
+  /**
+   * @return Класс лексера
+   */
+  Class<? extends Lexer> lexer();
+}
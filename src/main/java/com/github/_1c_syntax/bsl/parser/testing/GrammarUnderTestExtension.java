@@ -0,0 +1,107 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * Расширение JUnit 5, внедряющее {@link TestParser} и {@link TestLexer} в параметры,
+ * отмеченные {@link GrammarUnderTest}.
+ * <p>
+ * Для каждой пары классов грамматики в корневом хранилище контекста создается один держатель на всю JVM.
+ * {@link TestParser} и {@link TestLexer} хранят состояние последней проверки, поэтому держатель выдает
+ * каждому потоку собственный экземпляр, созданный при первом обращении из этого потока
+ */
+public class GrammarUnderTestExtension implements ParameterResolver {
+  private static final ExtensionContext.Namespace NAMESPACE =
+    ExtensionContext.Namespace.create(GrammarUnderTestExtension.class);
+
+  @Override
+  public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+    var type = parameterContext.getParameter().getType();
+    return parameterContext.isAnnotated(GrammarUnderTest.class)
+      && (type == TestParser.class || type == TestLexer.class);
+  }
+
+  @Override
+  public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+    var grammar = parameterContext.findAnnotation(GrammarUnderTest.class)
+      .orElseThrow(() -> new ParameterResolutionException("@GrammarUnderTest is missing"));
+    var store = extensionContext.getRoot().getStore(NAMESPACE);
+
+    if (parameterContext.getParameter().getType() == TestLexer.class) {
+      return store.getOrComputeIfAbsent(new Key(null, grammar.lexer()),
+        key -> new LexerHolder(grammar.lexer()), LexerHolder.class).get();
+    }
+
+    if (grammar.parser() == Parser.class) {
+      throw new ParameterResolutionException("Parser class is not set for " + parameterContext.getParameter());
+    }
+    return store.getOrComputeIfAbsent(new Key(grammar.parser(), grammar.lexer()),
+      key -> new ParserHolder(grammar.parser(), grammar.lexer()), ParserHolder.class).get();
+  }
+
+  private static <P extends Parser, L extends Lexer> TestParser<P, L> createParser(Class<P> parserClazz,
+                                                                                     Class<L> lexerClazz) {
+    return new TestParser<>(parserClazz, lexerClazz);
+  }
+
+  private static <L extends Lexer> TestLexer<L> createLexer(Class<L> lexerClazz) {
+    return new TestLexer<>(lexerClazz);
+  }
+
+  @Value
+  private static class Key {
+    Class<? extends Parser> parser;
+    Class<? extends Lexer> lexer;
+  }
+
+  private static final class ParserHolder {
+    private final ThreadLocal<TestParser<?, ?>> instances;
+
+    private ParserHolder(Class<? extends Parser> parserClazz, Class<? extends Lexer> lexerClazz) {
+      instances = ThreadLocal.withInitial(() -> createParser(parserClazz, lexerClazz));
+    }
+
+    private TestParser<?, ?> get() {
+      return instances.get();
+    }
+  }
+
+  private static final class LexerHolder {
+    private final ThreadLocal<TestLexer<?>> instances;
+
+    private LexerHolder(Class<? extends Lexer> lexerClazz) {
+      instances = ThreadLocal.withInitial(() -> createLexer(lexerClazz));
+    }
+
+    private TestLexer<?> get() {
+      return instances.get();
+    }
+  }
+}
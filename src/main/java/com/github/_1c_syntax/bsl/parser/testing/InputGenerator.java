@@ -0,0 +1,453 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.IncrementalTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.NotSetTransition;
+import org.antlr.v4.runtime.atn.RuleStopState;
+import org.antlr.v4.runtime.atn.RuleTransition;
+import org.antlr.v4.runtime.atn.Transition;
+import org.antlr.v4.runtime.atn.WildcardTransition;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор синтетических текстов по ATN парсера и лексера тестируемой грамматики.
+ * <p>
+ * Генератор случайно обходит ATN парсера, начиная со стартового рула, и для каждого встреченного токена
+ * порождает текст обходом ATN соответствующего рула лексера. Пока не достигнуты ограничения глубины
+ * вложенности рулов и размера текста, на развилках с вероятностью {@code breadth} выбирается расширяющая
+ * альтернатива (следующая итерация цикла, необязательный элемент), после - кратчайшее завершение.
+ * Одинаковые настройки и зерно дают одинаковый текст.
+ * <p>
+ * Семантические предикаты и действия не вычисляются, поэтому для грамматик, зависящих от них,
+ * часть текстов может не разбираться. {@link #generateMatching(int, int)} отбирает тексты, прошедшие разбор.
+ * Для чтения ATN и проверки текстов генератор создает собственные лексер и парсер, поэтому не меняет
+ * состояние переданного {@link TestParser} и не заполняет его кэши
+ */
+public final class InputGenerator {
+  private static final int INFINITY = Integer.MAX_VALUE / 2;
+  private static final int MAX_TOKEN_LENGTH = 12;
+  private static final int[] PREFERRED_CHARS = preferredChars();
+
+  private final TestParser<?, ?> testParser;
+  private final Lexer lexer;
+  private final Vocabulary vocabulary;
+  private final MinCost parserCost;
+  private final MinCost lexerCost;
+  private final int[] tokenTypeToLexerRule;
+
+  private long seed;
+  private int maxDepth = 32;
+  private int targetSize = 4 * 1024;
+  private double breadth = 0.6;
+  private String separator = " ";
+
+  /**
+   * @param testParser Тестируемый парсер, грамматика которого используется для генерации
+   */
+  public InputGenerator(TestParser<?, ?> testParser) {
+    this.testParser = testParser;
+    this.lexer = testParser.getLexer().createLexer(CharStreams.fromString(""));
+    lexer.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    var parser = testParser.newParser(new IncrementalTokenStream(lexer));
+    this.vocabulary = parser.getVocabulary();
+    this.parserCost = new MinCost(parser.getATN());
+
+    var lexerATN = lexer.getATN();
+    this.lexerCost = new MinCost(lexerATN);
+    this.tokenTypeToLexerRule = tokenTypeToLexerRule(lexerATN);
+  }
+
+  /**
+   * @param seed Зерно генератора случайных чисел
+   * @return Генератор (для текучести)
+   */
+  public InputGenerator withSeed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * @param maxDepth Максимальная глубина вложенности рулов, после которой выбираются кратчайшие завершения
+   * @return Генератор (для текучести)
+   */
+  public InputGenerator withMaxDepth(int maxDepth) {
+    this.maxDepth = maxDepth;
+    return this;
+  }
+
+  /**
+   * @param targetSize Желаемый размер текста в символах, после которого выбираются кратчайшие завершения
+   * @return Генератор (для текучести)
+   */
+  public InputGenerator withTargetSize(int targetSize) {
+    this.targetSize = targetSize;
+    return this;
+  }
+
+  /**
+   * @param breadth Вероятность выбора расширяющей альтернативы на развилке, от 0 до 1
+   * @return Генератор (для текучести)
+   */
+  public InputGenerator withBreadth(double breadth) {
+    this.breadth = breadth;
+    return this;
+  }
+
+  /**
+   * @param separator Разделитель токенов
+   * @return Генератор (для текучести)
+   */
+  public InputGenerator withSeparator(String separator) {
+    this.separator = separator;
+    return this;
+  }
+
+  /**
+   * Генерирует текст для стартового рула грамматики (с идентификатором 0)
+   *
+   * @return Сгенерированный текст
+   */
+  public String generate() {
+    return generate(0);
+  }
+
+  /**
+   * Генерирует текст для указанного рула
+   *
+   * @param ruleId Идентификатор рула
+   * @return Сгенерированный текст
+   */
+  public String generate(int ruleId) {
+    return generate(ruleId, new Random(seed));
+  }
+
+  /**
+   * Генерирует тексты для указанного рула, пока очередной текст не будет разобран без ошибок
+   *
+   * @param ruleId   Идентификатор рула
+   * @param attempts Максимальное количество попыток
+   * @return Разобранный без ошибок текст
+   * @throws IllegalStateException если за указанное количество попыток подходящий текст не получен
+   */
+  public String generateMatching(int ruleId, int attempts) {
+    var random = new Random(seed);
+    for (var attempt = 0; attempt < attempts; attempt++) {
+      var text = generate(ruleId, random);
+      if (isMatching(ruleId, text)) {
+        return text;
+      }
+    }
+    throw new IllegalStateException("No matching input generated in " + attempts + " attempts");
+  }
+
+  /**
+   * Разбирает текст в режиме быстрого отказа: текст подходит, если рул прочитал его до конца без ошибок,
+   * в том числе исправленных восстановлением внутри рула
+   */
+  private boolean isMatching(int ruleId, String text) {
+    lexer.setInputStream(CharStreams.fromString(text));
+    var parser = testParser.newParser(new IncrementalTokenStream(lexer));
+    parser.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    var failFastStrategy = new FailFastErrorStrategy();
+    parser.setErrorHandler(failFastStrategy);
+    try {
+      testParser.parseRule(parser, ruleId);
+    } catch (ParseCancellationException e) {
+      return false;
+    }
+    return failFastStrategy.getSyntaxError() == null
+      && parser.getNumberOfSyntaxErrors() == 0
+      && parser.getInputStream().LA(1) == Token.EOF;
+  }
+
+  private String generate(int ruleId, Random random) {
+    var output = new StringBuilder(targetSize + targetSize / 4);
+    var returnStack = new ArrayDeque<ATNState>();
+    ATNState state = parserCost.atn.ruleToStartState[ruleId];
+
+    while (true) {
+      if (state instanceof RuleStopState) {
+        if (returnStack.isEmpty()) {
+          break;
+        }
+        state = returnStack.pop();
+        continue;
+      }
+
+      var expand = returnStack.size() < maxDepth && output.length() < targetSize;
+      var transition = parserCost.choose(state, expand, breadth, random);
+      if (transition instanceof RuleTransition ruleTransition) {
+        returnStack.push(ruleTransition.followState);
+      } else if (!transition.isEpsilon()) {
+        var tokenType = chooseToken(transition, random);
+        if (tokenType != Token.EOF) {
+          if (!output.isEmpty()) {
+            output.append(separator);
+          }
+          output.append(tokenText(tokenType, random));
+        }
+      }
+      state = transition.target;
+    }
+    return output.toString();
+  }
+
+  private String tokenText(int tokenType, Random random) {
+    var literal = vocabulary.getLiteralName(tokenType);
+    if (literal != null && literal.length() >= 2 && literal.startsWith("'") && literal.endsWith("'")) {
+      return literal.substring(1, literal.length() - 1).replace("\\'", "'");
+    }
+
+    var lexerRule = tokenType < tokenTypeToLexerRule.length ? tokenTypeToLexerRule[tokenType] : -1;
+    if (lexerRule < 0) {
+      var symbolicName = vocabulary.getSymbolicName(tokenType);
+      return symbolicName == null ? String.valueOf(tokenType) : symbolicName;
+    }
+
+    var text = new StringBuilder();
+    var returnStack = new ArrayDeque<ATNState>();
+    ATNState state = lexerCost.atn.ruleToStartState[lexerRule];
+    while (true) {
+      if (state instanceof RuleStopState) {
+        if (returnStack.isEmpty()) {
+          break;
+        }
+        state = returnStack.pop();
+        continue;
+      }
+
+      var transition = lexerCost.choose(state, text.length() < MAX_TOKEN_LENGTH, 0.5, random);
+      if (transition instanceof RuleTransition ruleTransition) {
+        returnStack.push(ruleTransition.followState);
+      } else if (!transition.isEpsilon()) {
+        var symbol = chooseChar(transition, random);
+        if (symbol >= 0) {
+          text.appendCodePoint(symbol);
+        }
+      }
+      state = transition.target;
+    }
+    return text.toString();
+  }
+
+  private int chooseToken(Transition transition, Random random) {
+    var maxTokenType = vocabulary.getMaxTokenType();
+    if (transition instanceof NotSetTransition notSetTransition) {
+      var excluded = notSetTransition.set;
+      var start = 1 + random.nextInt(maxTokenType);
+      for (var i = 0; i < maxTokenType; i++) {
+        var tokenType = 1 + (start - 1 + i) % maxTokenType;
+        if (!excluded.contains(tokenType)) {
+          return tokenType;
+        }
+      }
+      return Token.EOF;
+    }
+
+    if (transition instanceof WildcardTransition) {
+      return 1 + random.nextInt(maxTokenType);
+    }
+    return chooseFromSet(transition.label(), random);
+  }
+
+  private static int chooseChar(Transition transition, Random random) {
+    if (transition instanceof NotSetTransition notSetTransition) {
+      var excluded = notSetTransition.set;
+      var candidates = Arrays.stream(PREFERRED_CHARS).filter(symbol -> !excluded.contains(symbol)).toArray();
+      return candidates.length == 0 ? -1 : candidates[random.nextInt(candidates.length)];
+    }
+
+    if (transition instanceof WildcardTransition) {
+      return PREFERRED_CHARS[random.nextInt(PREFERRED_CHARS.length)];
+    }
+    return chooseFromSet(transition.label(), random);
+  }
+
+  private static int chooseFromSet(IntervalSet set, Random random) {
+    if (set == null || set.isNil()) {
+      return -1;
+    }
+
+    if (set.size() > PREFERRED_CHARS.length) {
+      var preferred = Arrays.stream(PREFERRED_CHARS).filter(set::contains).toArray();
+      if (preferred.length > 0) {
+        return preferred[random.nextInt(preferred.length)];
+      }
+    }
+
+    var index = random.nextInt(set.size());
+    for (var interval : set.getIntervals()) {
+      var length = interval.b - interval.a + 1;
+      if (index < length) {
+        return interval.a + index;
+      }
+      index -= length;
+    }
+    return set.getMinElement();
+  }
+
+  private static int[] tokenTypeToLexerRule(ATN lexerATN) {
+    var maxTokenType = Arrays.stream(lexerATN.ruleToTokenType).max().orElse(0);
+    var result = new int[maxTokenType + 1];
+    Arrays.fill(result, -1);
+    for (var rule = 0; rule < lexerATN.ruleToTokenType.length; rule++) {
+      var tokenType = lexerATN.ruleToTokenType[rule];
+      if (tokenType > 0 && result[tokenType] < 0) {
+        result[tokenType] = rule;
+      }
+    }
+    return result;
+  }
+
+  private static int[] preferredChars() {
+    var chars = new ArrayList<Integer>();
+    for (var symbol = 'a'; symbol <= 'z'; symbol++) {
+      chars.add((int) symbol);
+    }
+    for (var symbol = 'A'; symbol <= 'Z'; symbol++) {
+      chars.add((int) symbol);
+    }
+    for (var symbol = '0'; symbol <= '9'; symbol++) {
+      chars.add((int) symbol);
+    }
+    for (var symbol = 'а'; symbol <= 'я'; symbol++) {
+      chars.add((int) symbol);
+    }
+    for (var symbol : " _.,;:!?+-*/=<>()[]".toCharArray()) {
+      chars.add((int) symbol);
+    }
+    return chars.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Минимальная стоимость завершения рула из каждого состояния ATN: количество символов (токенов)
+   * и, при равенстве, количество переходов. Выбор перехода с минимальной стоимостью строго ее уменьшает,
+   * поэтому кратчайшее завершение всегда конечно
+   */
+  private static final class MinCost {
+    private final ATN atn;
+    private final int[] symbols;
+    private final int[] steps;
+
+    private MinCost(ATN atn) {
+      this.atn = atn;
+      var size = atn.states.size();
+      symbols = new int[size];
+      steps = new int[size];
+      Arrays.fill(symbols, INFINITY);
+      Arrays.fill(steps, INFINITY);
+
+      var changed = true;
+      while (changed) {
+        changed = false;
+        for (var state : atn.states) {
+          if (state == null) {
+            continue;
+          }
+          if (state instanceof RuleStopState) {
+            if (symbols[state.stateNumber] != 0 || steps[state.stateNumber] != 0) {
+              symbols[state.stateNumber] = 0;
+              steps[state.stateNumber] = 0;
+              changed = true;
+            }
+            continue;
+          }
+
+          for (var i = 0; i < state.getNumberOfTransitions(); i++) {
+            var transition = state.transition(i);
+            var candidateSymbols = symbolsVia(transition);
+            var candidateSteps = stepsVia(transition);
+            if (less(candidateSymbols, candidateSteps, symbols[state.stateNumber], steps[state.stateNumber])) {
+              symbols[state.stateNumber] = candidateSymbols;
+              steps[state.stateNumber] = candidateSteps;
+              changed = true;
+            }
+          }
+        }
+      }
+    }
+
+    private Transition choose(ATNState state, boolean expand, double breadth, Random random) {
+      var count = state.getNumberOfTransitions();
+      Transition shortest = null;
+      List<Transition> others = new ArrayList<>(count);
+      for (var i = 0; i < count; i++) {
+        var transition = state.transition(i);
+        if (symbolsVia(transition) >= INFINITY) {
+          continue;
+        }
+        if (shortest == null
+          || less(symbolsVia(transition), stepsVia(transition), symbolsVia(shortest), stepsVia(shortest))) {
+          if (shortest != null) {
+            others.add(shortest);
+          }
+          shortest = transition;
+        } else {
+          others.add(transition);
+        }
+      }
+
+      if (shortest == null) {
+        throw new IllegalStateException("ATN state " + state.stateNumber + " can't reach rule end");
+      }
+      if (expand && !others.isEmpty() && random.nextDouble() < breadth) {
+        return others.get(random.nextInt(others.size()));
+      }
+      return shortest;
+    }
+
+    private int symbolsVia(Transition transition) {
+      if (transition instanceof RuleTransition ruleTransition) {
+        return add(symbols[ruleTransition.target.stateNumber], symbols[ruleTransition.followState.stateNumber]);
+      }
+      return add(transition.isEpsilon() ? 0 : 1, symbols[transition.target.stateNumber]);
+    }
+
+    private int stepsVia(Transition transition) {
+      var next = transition instanceof RuleTransition ruleTransition ? ruleTransition.followState : transition.target;
+      return add(1, steps[next.stateNumber]);
+    }
+
+    private static int add(int first, int second) {
+      return first >= INFINITY || second >= INFINITY ? INFINITY : first + second;
+    }
+
+    private static boolean less(int symbols, int steps, int otherSymbols, int otherSteps) {
+      return symbols < otherSymbols || (symbols == otherSymbols && steps < otherSteps);
+    }
+  }
+}
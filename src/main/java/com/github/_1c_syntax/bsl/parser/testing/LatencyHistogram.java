@@ -0,0 +1,97 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Неблокирующая гистограмма длительностей с логарифмическими интервалами: каждая степень двойки
+ * делится на четыре равных интервала, поэтому относительная погрешность значения не превышает 25%
+ */
+class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * Учитывает значение в гистограмме
+   *
+   * @param value Значение (отрицательные считаются нулем)
+   */
+  void record(long value) {
+    counts.incrementAndGet(index(Math.max(value, 0)));
+  }
+
+  /**
+   * @return Количество учтенных значений
+   */
+  long count() {
+    var total = 0L;
+    for (var i = 0; i < BUCKETS; i++) {
+      total += counts.get(i);
+    }
+    return total;
+  }
+
+  /**
+   * Возвращает оценку перцентиля: верхнюю границу интервала, в который он попадает
+   *
+   * @param percentile Перцентиль от 0 до 100
+   * @return Значение либо 0, если значений нет
+   */
+  long percentile(double percentile) {
+    var total = count();
+    if (total == 0) {
+      return 0;
+    }
+
+    var threshold = (long) Math.ceil(total * percentile / 100.0);
+    var accumulated = 0L;
+    for (var i = 0; i < BUCKETS; i++) {
+      accumulated += counts.get(i);
+      if (accumulated >= Math.max(threshold, 1)) {
+        return i == BUCKETS - 1 ? Long.MAX_VALUE : lowerBound(i + 1) - 1;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long lowerBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    var exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    var subBucket = index % SUB_BUCKETS;
+    return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+  }
+}
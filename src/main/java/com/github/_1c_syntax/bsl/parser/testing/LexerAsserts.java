@@ -24,8 +24,11 @@ package com.github._1c_syntax.bsl.parser.testing;
 import org.antlr.v4.runtime.Token;
 import org.assertj.core.api.Assertions;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.PrimitiveIterator;
 
 /**
  * Реализация утверждений для лексера
@@ -37,10 +40,33 @@ public class LexerAsserts {
 
   private final int mode;
 
+  private final String inputString;
+
+  /**
+   * Смещения (в символах Unicode) начала каждой строки текста. Строится при первом поиске по позиции
+   */
+  private int[] lineStarts;
+
+  /**
+   * Длина текста в символах Unicode без BOM. Вычисляется при первом поиске по позиции
+   */
+  private int textLength;
+
+  /**
+   * Смещения начала токенов в порядке их следования. Строится при первом поиске по позиции
+   */
+  private int[] tokenStarts;
+
+  /**
+   * Номера строк токенов в порядке их следования. Строится при первом поиске по позиции
+   */
+  private int[] tokenLines;
+
   public LexerAsserts(TestLexer<?> lexer, String inputString, int mode, int channel) {
     this.lexer = lexer;
     this.channel = channel;
     this.mode = mode;
+    this.inputString = inputString;
     this.tokens = lexer.getTokens(mode, inputString);
   }
 
@@ -102,6 +128,101 @@ public class LexerAsserts {
     return this;
   }
 
+  /**
+   * Проверяет тип токена, расположенного в указанной позиции исходного текста
+   *
+   * @param lineNo    номер строки (с 1)
+   * @param column    позиция в строке (с 0)
+   * @param tokenType ожидаемый тип токена
+   * @return Ассерт (для текучести)
+   */
+  public LexerAsserts tokenAtHasType(int lineNo, int column, int tokenType) {
+    var token = tokenAt(lineNo, column);
+    Assertions.assertThat(token).as("token at " + lineNo + ":" + column).isNotNull();
+    Assertions.assertThat(lexer.tokenName(token.getType()))
+      .as("token at " + lineNo + ":" + column)
+      .isEqualTo(lexer.tokenName(tokenType));
+    return this;
+  }
+
+  /**
+   * Находит токен (любого канала), содержащий указанную позицию исходного текста.
+   * Поиск выполняется двоичным поиском по индексу, построенному при первом обращении
+   *
+   * @param lineNo номер строки (с 1)
+   * @param column позиция в строке (с 0)
+   * @return Найденный токен либо null, если позиция за пределами строки или не покрыта токенами
+   */
+  public Token tokenAt(int lineNo, int column) {
+    buildIndex();
+    if (lineNo < 1 || lineNo > lineStarts.length || column < 0) {
+      return null;
+    }
+
+    var offset = lineStarts[lineNo - 1] + column;
+    var lineEnd = lineNo < lineStarts.length ? lineStarts[lineNo] : textLength;
+    if (offset >= lineEnd) {
+      return null;
+    }
+    return tokenAtOffset(offset);
+  }
+
+  /**
+   * Находит токен (любого канала), содержащий символ с указанным смещением от начала текста
+   *
+   * @param offset смещение (с 0)
+   * @return Найденный токен либо null, если смещение не покрыто токенами
+   */
+  public Token tokenAtOffset(int offset) {
+    buildIndex();
+    var index = upperBound(tokenStarts, offset) - 1;
+    if (index < 0) {
+      return null;
+    }
+
+    var token = tokens.get(index);
+    if (token.getType() == Token.EOF || token.getStopIndex() < offset) {
+      return null;
+    }
+    return token;
+  }
+
+  /**
+   * Возвращает токены всех каналов, начинающиеся на указанной строке
+   *
+   * @param lineNo номер строки (с 1)
+   * @return Токены строки в порядке следования
+   */
+  public List<Token> tokensOnLine(int lineNo) {
+    buildIndex();
+    return tokens.subList(upperBound(tokenLines, lineNo - 1), upperBound(tokenLines, lineNo));
+  }
+
+  /**
+   * Оценивает объем памяти, удерживаемый списком токенов, включая исходный текст, на который они ссылаются
+   *
+   * @return Оценка объема с разбивкой по классам
+   */
+  public RetainedSize retainedSize() {
+    return new RetainedSizeWalker(String::valueOf).measure(tokens);
+  }
+
+  /**
+   * Проверяет, что объем памяти, удерживаемый списком токенов, на байт исходного текста (в UTF-8)
+   * не превышает заданный
+   *
+   * @param bytesPerSourceByte допустимое количество байт на байт исходного текста
+   * @return Ассерт (для текучести)
+   */
+  public LexerAsserts retainedBytesPerSourceByteAtMost(double bytesPerSourceByte) {
+    var retainedSize = retainedSize();
+    var sourceBytes = inputString.getBytes(StandardCharsets.UTF_8).length;
+    Assertions.assertThat((double) retainedSize.getTotalBytes() / Math.max(sourceBytes, 1))
+      .as("Retained bytes per source byte, by type: " + retainedSize.getBytesByType())
+      .isLessThanOrEqualTo(bytesPerSourceByte);
+    return this;
+  }
+
   /**
    * Выполняет сопоставление переданной строки с установленной посредством assertThat по составу и порядку
    * идентификаторов токенов (с учетом установленных mode и channel)
@@ -149,4 +270,66 @@ public class LexerAsserts {
     }
     return this;
   }
+
+  private void buildIndex() {
+    if (tokenStarts != null) {
+      return;
+    }
+
+    var starts = new int[tokens.size()];
+    var lines = new int[tokens.size()];
+    for (var i = 0; i < starts.length; i++) {
+      var token = tokens.get(i);
+      starts[i] = token.getStartIndex();
+      lines[i] = token.getLine();
+    }
+
+    lineStarts = computeLineStarts(inputString);
+    textLength = inputString.codePointCount(0, inputString.length());
+    if (!inputString.isEmpty() && inputString.charAt(0) == '\uFEFF') {
+      textLength--;
+    }
+    tokenLines = lines;
+    tokenStarts = starts;
+  }
+
+  private static int[] computeLineStarts(String text) {
+    var result = new int[16];
+    var count = 1;
+    var offset = 0;
+    PrimitiveIterator.OfInt codePoints = text.codePoints().iterator();
+    if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+      // BOM пропускается лексером и не учитывается в смещениях
+      codePoints.nextInt();
+    }
+
+    while (codePoints.hasNext()) {
+      var codePoint = codePoints.nextInt();
+      offset++;
+      if (codePoint == '\n') {
+        if (count == result.length) {
+          result = Arrays.copyOf(result, count * 2);
+        }
+        result[count++] = offset;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Возвращает индекс первого элемента отсортированного массива, большего указанного значения
+   */
+  private static int upperBound(int[] values, int key) {
+    var low = 0;
+    var high = values.length;
+    while (low < high) {
+      var middle = (low + high) >>> 1;
+      if (values[middle] <= key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
 }
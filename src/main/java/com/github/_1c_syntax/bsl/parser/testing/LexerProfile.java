@@ -0,0 +1,67 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Профиль лексического анализа текста или корпуса. Разбивки упорядочены по убыванию значения
+ */
+@Value
+public class LexerProfile {
+  /**
+   * Размер текстов в символах
+   */
+  long chars;
+
+  /**
+   * Количество токенов, включая EOF
+   */
+  long tokens;
+
+  /**
+   * Суммарное время чтения токенов
+   */
+  long nanos;
+
+  /**
+   * Количество промахов DFA, при которых лексер переходил к симуляции ATN
+   */
+  long dfaMisses;
+
+  /**
+   * Количество токенов по именам типов
+   */
+  Map<String, Long> tokensByType;
+
+  /**
+   * Время чтения токенов по режимам лексера, в которых начиналось чтение
+   */
+  Map<String, Long> nanosByMode;
+
+  /**
+   * Промахи DFA по именам типов токенов, при чтении которых они произошли
+   */
+  Map<String, Long> dfaMissesByType;
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Накопитель показателей лексического анализа: количества токенов и промахов DFA по типам токенов,
+ * время по режимам лексера. Счетчики хранятся в массивах, индекс типа токена смещен на 1 для EOF
+ */
+class LexerProfiler {
+  private long[] tokens = new long[16];
+  private long[] misses = new long[16];
+  private long[] modeNanos = new long[4];
+  private long chars;
+
+  /**
+   * Учитывает прочитанный токен
+   *
+   * @param mode   Режим лексера на начало чтения токена
+   * @param type   Тип токена
+   * @param nanos  Длительность чтения токена
+   * @param missed Количество промахов DFA при чтении токена
+   */
+  void record(int mode, int type, long nanos, long missed) {
+    var index = type + 1;
+    if (index >= tokens.length) {
+      tokens = Arrays.copyOf(tokens, index * 2);
+      misses = Arrays.copyOf(misses, index * 2);
+    }
+    tokens[index]++;
+    misses[index] += missed;
+
+    if (mode >= modeNanos.length) {
+      modeNanos = Arrays.copyOf(modeNanos, mode * 2);
+    }
+    modeNanos[mode] += nanos;
+  }
+
+  /**
+   * Учитывает размер прочитанного текста
+   *
+   * @param inputSize Размер текста в символах
+   */
+  void recordInput(int inputSize) {
+    chars += inputSize;
+  }
+
+  /**
+   * Формирует профиль
+   *
+   * @param modeName  Имя режима по номеру
+   * @param tokenName Имя токена по типу
+   * @return Профиль
+   */
+  LexerProfile profile(IntFunction<String> modeName, IntFunction<String> tokenName) {
+    var tokensByType = new LinkedHashMap<String, Long>();
+    var missesByType = new LinkedHashMap<String, Long>();
+    var totalTokens = 0L;
+    var totalMisses = 0L;
+    for (var index = 0; index < tokens.length; index++) {
+      if (tokens[index] > 0) {
+        var name = tokenName.apply(index - 1);
+        tokensByType.merge(name, tokens[index], Long::sum);
+        missesByType.merge(name, misses[index], Long::sum);
+        totalTokens += tokens[index];
+        totalMisses += misses[index];
+      }
+    }
+
+    var nanosByMode = new LinkedHashMap<String, Long>();
+    var totalNanos = 0L;
+    for (var mode = 0; mode < modeNanos.length; mode++) {
+      if (modeNanos[mode] > 0) {
+        nanosByMode.merge(modeName.apply(mode), modeNanos[mode], Long::sum);
+        totalNanos += modeNanos[mode];
+      }
+    }
+
+    return new LexerProfile(chars, totalTokens, totalNanos, totalMisses,
+      sorted(tokensByType), sorted(nanosByMode), sorted(missesByType));
+  }
+
+  private static Map<String, Long> sorted(Map<String, Long> values) {
+    var result = new LinkedHashMap<String, Long>();
+    values.entrySet().stream()
+      .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+        .thenComparing(Map.Entry.comparingByKey()))
+      .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+    return result;
+  }
+}
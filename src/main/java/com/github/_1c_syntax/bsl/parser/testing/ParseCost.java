@@ -0,0 +1,52 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+
+/**
+ * Стоимость разбора текста в единицах, не зависящих от загрузки машины и прогрева JIT:
+ * количество токенов и операций предсказания парсера. Используется для контроля деградации
+ * производительности грамматики (см. {@link PerformanceBaseline})
+ */
+@Value
+public class ParseCost {
+  /**
+   * Количество токенов всех каналов, включая EOF
+   */
+  long tokens;
+
+  /**
+   * Количество вызовов предсказания альтернатив (решений ATN)
+   */
+  long decisions;
+
+  /**
+   * Суммарное количество просмотренных вперед токенов во всех решениях (SLL и полный LL)
+   */
+  long lookahead;
+
+  /**
+   * Количество решений, для которых потребовался переход к полному LL-контексту
+   */
+  long fullContextFallbacks;
+}
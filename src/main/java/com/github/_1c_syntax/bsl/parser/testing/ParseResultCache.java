@@ -0,0 +1,274 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Getter;
+import org.antlr.v4.runtime.CharStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Дисковый кэш результатов лексического и синтаксического анализа между запусками тестов.
+ * <p>
+ * Хранит компактные потоки токенов ({@link CompactTokenList}) и признаки успешного разбора, так что
+ * {@link LexerAsserts#containsAll(Integer...)} и {@link ParserAsserts#matches()} на неизменившихся текстах
+ * выполняются без лексического и синтаксического анализа. Ключ записи - хэш грамматики лексера (и парсера),
+ * режима, стартового рула и текста, поэтому изменение грамматики или действий лексера и парсера делает старые
+ * записи недостижимыми. Неуспешный разбор не кэшируется: для диагностики ошибки текст разбирается заново.
+ * Пока включен сбор покрытия ({@link GrammarCoverage}), сохраненные признаки успешного разбора не используются.
+ * <p>
+ * Кэш включается системным свойством {@value #CACHE_PROPERTY} с путем к каталогу (true - {@value #DEFAULT_DIRECTORY})
+ * или программно через {@link TestLexer#setCache(ParseResultCache)}
+ */
+public final class ParseResultCache {
+  /**
+   * Системное свойство с каталогом кэша
+   */
+  public static final String CACHE_PROPERTY = "bsl.parser.testing.cache";
+
+  /**
+   * Каталог кэша по умолчанию
+   */
+  public static final String DEFAULT_DIRECTORY = "build/bsl-parser-testing-cache";
+
+  private static final int FORMAT_VERSION = 3;
+  private static final String TOKENS_EXTENSION = ".tokens";
+  private static final String MATCHES_EXTENSION = ".matches";
+  private static final ParseResultCache DEFAULT = createDefault();
+  private static final Map<Class<?>, String> GRAMMAR_HASHES = new ConcurrentHashMap<>();
+
+  /**
+   * Каталог кэша
+   */
+  @Getter
+  private final Path directory;
+
+  private ParseResultCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Открывает кэш в указанном каталоге. Каталог создается при первой записи
+   *
+   * @param directory Каталог кэша
+   * @return Кэш
+   */
+  public static ParseResultCache open(Path directory) {
+    return new ParseResultCache(directory);
+  }
+
+  /**
+   * @return Кэш, включенный системным свойством {@value #CACHE_PROPERTY}, либо null
+   */
+  public static ParseResultCache getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Вычисляет ключ записи
+   *
+   * @param lexerClass  Класс лексера
+   * @param parserClass Класс парсера либо null для потока токенов
+   * @param mode        Режим лексера
+   * @param ruleId      Стартовый рул либо -1 для потока токенов
+   * @param inputString Анализируемая строка
+   * @return Ключ записи
+   */
+  String key(Class<?> lexerClass, Class<?> parserClass, int mode, int ruleId, String inputString) {
+    var digest = sha256();
+    digest.update(grammarHash(lexerClass).getBytes(StandardCharsets.US_ASCII));
+    if (parserClass != null) {
+      digest.update(grammarHash(parserClass).getBytes(StandardCharsets.US_ASCII));
+    }
+    digest.update((":" + mode + ":" + ruleId + ":").getBytes(StandardCharsets.US_ASCII));
+    digest.update(inputString.getBytes(StandardCharsets.UTF_8));
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Читает поток токенов
+   *
+   * @param key   Ключ записи
+   * @param input Поток символов, из которого прочитаны токены
+   * @return Токены либо null, если записи нет или она повреждена
+   */
+  CompactTokenList loadTokens(String key, CharStream input) {
+    try (var stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path(key, TOKENS_EXTENSION))))) {
+      if (stream.readInt() != FORMAT_VERSION) {
+        return null;
+      }
+
+      var size = stream.readInt();
+      var tokens = new CompactTokenList(input, size);
+      for (var i = 0; i < size; i++) {
+        tokens.append(stream.readInt(), stream.readInt(), stream.readInt(), stream.readInt(),
+          stream.readInt(), stream.readInt());
+      }
+      var texts = stream.readInt();
+      for (var i = 0; i < texts; i++) {
+        var index = stream.readInt();
+        tokens.putText(index, new String(stream.readNBytes(stream.readInt()), StandardCharsets.UTF_8));
+      }
+      return tokens;
+    } catch (IOException e) {
+      // записи нет либо она повреждена и будет перезаписана
+      return null;
+    }
+  }
+
+  /**
+   * Сохраняет поток токенов
+   *
+   * @param key    Ключ записи
+   * @param tokens Токены
+   */
+  void storeTokens(String key, CompactTokenList tokens) {
+    write(path(key, TOKENS_EXTENSION), stream -> {
+      stream.writeInt(FORMAT_VERSION);
+      stream.writeInt(tokens.size());
+      for (var i = 0; i < tokens.size(); i++) {
+        stream.writeInt(tokens.type(i));
+        stream.writeInt(tokens.channel(i));
+        stream.writeInt(tokens.startIndex(i));
+        stream.writeInt(tokens.stopIndex(i));
+        stream.writeInt(tokens.line(i));
+        stream.writeInt(tokens.column(i));
+      }
+      // тексты, установленные лексером (setText), не восстанавливаются из потока символов
+      var texts = tokens.explicitTexts();
+      stream.writeInt(texts.size());
+      for (var entry : texts.entrySet()) {
+        var bytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+        stream.writeInt(entry.getKey());
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+      }
+    });
+  }
+
+  /**
+   * @param key Ключ записи
+   * @return Признак сохраненного успешного разбора
+   */
+  boolean isMatched(String key) {
+    return Files.exists(path(key, MATCHES_EXTENSION));
+  }
+
+  /**
+   * Сохраняет признак успешного разбора
+   *
+   * @param key Ключ записи
+   */
+  void storeMatched(String key) {
+    write(path(key, MATCHES_EXTENSION), stream -> stream.writeInt(FORMAT_VERSION));
+  }
+
+  /**
+   * Вычисляет хэш грамматики класса: сериализованного ATN и байт-кода класса и его предков.
+   * Байт-код учитывает действия и предикаты, которые в ATN не попадают
+   *
+   * @param clazz Класс лексера или парсера
+   * @return Хэш в шестнадцатеричном виде
+   */
+  static String grammarHash(Class<?> clazz) {
+    return GRAMMAR_HASHES.computeIfAbsent(clazz, ParseResultCache::computeGrammarHash);
+  }
+
+  private static String computeGrammarHash(Class<?> clazz) {
+    var digest = sha256();
+    try {
+      var field = clazz.getField("_serializedATN");
+      digest.update(String.valueOf(field.get(null)).getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchFieldException | IllegalAccessException | NullPointerException e) {
+      // грамматика без сериализованного ATN определяется только байт-кодом
+    }
+    for (var current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+      var className = current.getName();
+      try (InputStream stream = current.getResourceAsStream(className.substring(className.lastIndexOf('.') + 1)
+        + ".class")) {
+        digest.update(stream == null ? className.getBytes(StandardCharsets.UTF_8) : stream.readAllBytes());
+      } catch (IOException ioException) {
+        throw new UncheckedIOException(ioException);
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private Path path(String key, String extension) {
+    return directory.resolve(key.substring(0, 2)).resolve(key + extension);
+  }
+
+  private static void write(Path path, EntryWriter writer) {
+    try {
+      Files.createDirectories(path.getParent());
+      var tempFile = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+      try (var stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        writer.write(stream);
+      }
+      try {
+        // параллельные форки могут писать одну и ту же запись
+        Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static ParseResultCache createDefault() {
+    var directory = System.getProperty(CACHE_PROPERTY);
+    if (directory == null || directory.isBlank() || "false".equalsIgnoreCase(directory)) {
+      return null;
+    }
+    return open(Path.of("true".equalsIgnoreCase(directory) ? DEFAULT_DIRECTORY : directory));
+  }
+
+  @FunctionalInterface
+  private interface EntryWriter {
+    void write(DataOutputStream stream) throws IOException;
+  }
+}
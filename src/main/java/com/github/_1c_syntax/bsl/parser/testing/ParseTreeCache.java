@@ -0,0 +1,182 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+import org.antlr.v4.runtime.IncrementalTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+
+/**
+ * LRU-кэш потоков токенов и деревьев разбора в памяти. Ключ - SHA-256 текста, режим лексера и стартовый рул,
+ * сам текст кэш не удерживает. Объем ограничивается оценкой занимаемой записями памяти, включая ключи
+ * и удерживаемые потоки токенов: при превышении вытесняются давно не использованные
+ */
+final class ParseTreeCache {
+  /**
+   * Оценка размера токена вместе со ссылкой на него в потоке
+   */
+  static final long TOKEN_BYTES = 72;
+
+  /**
+   * Оценка размера узла дерева вместе со списком дочерних
+   */
+  static final long NODE_BYTES = 64;
+
+  /**
+   * Оценка размера ключа с шестнадцатеричным хэшем текста
+   */
+  static final long KEY_BYTES = 200;
+
+  private static final int TOKENS_RULE = -1;
+
+  private final long maxBytes;
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+  private long bytes;
+
+  /**
+   * @param maxBytes Допустимая оценка занимаемой памяти в байтах
+   */
+  ParseTreeCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * @param mode        Режим лексера
+   * @param inputString Текст
+   * @return Поток токенов либо null
+   */
+  synchronized IncrementalTokenStream getTokens(int mode, String inputString) {
+    var entry = entries.get(new Key(hash(inputString), mode, TOKENS_RULE));
+    return entry == null ? null : (IncrementalTokenStream) entry.getValue();
+  }
+
+  /**
+   * @param mode        Режим лексера
+   * @param inputString Текст
+   * @param tokenStream Прочитанный поток токенов
+   */
+  synchronized void putTokens(int mode, String inputString, IncrementalTokenStream tokenStream) {
+    put(new Key(hash(inputString), mode, TOKENS_RULE), tokenStream, KEY_BYTES + streamBytes(tokenStream));
+  }
+
+  /**
+   * @param mode        Режим лексера
+   * @param inputString Текст
+   * @param ruleId      Стартовый рул
+   * @return Дерево разбора либо null
+   */
+  synchronized Tree getTree(int mode, String inputString, int ruleId) {
+    var entry = entries.get(new Key(hash(inputString), mode, ruleId));
+    return entry == null ? null : (Tree) entry.getValue();
+  }
+
+  /**
+   * @param mode        Режим лексера
+   * @param inputString Текст
+   * @param ruleId      Стартовый рул
+   * @param tokenStream Поток токенов, из которого построено дерево
+   * @param ast         Дерево разбора
+   * @param nodeCount   Количество узлов дерева
+   */
+  synchronized void putTree(int mode, String inputString, int ruleId, IncrementalTokenStream tokenStream,
+                            ParserRuleContext ast, int nodeCount) {
+    // поток учитывается и здесь: запись дерева удерживает его после вытеснения записи токенов
+    put(new Key(hash(inputString), mode, ruleId), new Tree(tokenStream, ast),
+      KEY_BYTES + streamBytes(tokenStream) + NODE_BYTES * nodeCount);
+  }
+
+  /**
+   * @return Количество записей
+   */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return Оценка занимаемой записями памяти в байтах
+   */
+  synchronized long bytes() {
+    return bytes;
+  }
+
+  private static long streamBytes(IncrementalTokenStream tokenStream) {
+    if (tokenStream == null) {
+      return 0;
+    }
+    return 2L * TestParser.inputSize(tokenStream) + TOKEN_BYTES * tokenStream.size();
+  }
+
+  private static String hash(String inputString) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(inputString.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void put(Key key, Object value, long entryBytes) {
+    if (entryBytes > maxBytes) {
+      return;
+    }
+
+    var previous = entries.put(key, new Entry(value, entryBytes));
+    if (previous != null) {
+      bytes -= previous.getBytes();
+    }
+    bytes += entryBytes;
+
+    var iterator = entries.values().iterator();
+    while (bytes > maxBytes && iterator.hasNext()) {
+      bytes -= iterator.next().getBytes();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Дерево разбора вместе с потоком токенов, из которого оно построено
+   */
+  @Value
+  static class Tree {
+    IncrementalTokenStream tokens;
+    ParserRuleContext ast;
+  }
+
+  @Value
+  private static class Key {
+    String hash;
+    int mode;
+    int rule;
+  }
+
+  @Value
+  private static class Entry {
+    Object value;
+    long bytes;
+  }
+}
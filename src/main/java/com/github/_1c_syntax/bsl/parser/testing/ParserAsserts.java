@@ -21,14 +21,25 @@
  */
 package com.github._1c_syntax.bsl.parser.testing;
 
-import lombok.SneakyThrows;
+import lombok.Getter;
 import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.Trees;
 
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -37,23 +48,126 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
  * Реализация утверждений для лексера
  */
 public class ParserAsserts {
-  private final Parser parser;
+  private static final Pattern DESCENDANT_RULE = Pattern.compile("//([A-Za-z_][A-Za-z0-9_]*)");
+
+  private Parser parser;
   private final TestParser<?, ?> testParser;
 
-  private final ParserRuleContext currentAST;
+  /**
+   * Фикстура, для которой созданы утверждения. Запоминается при создании, так как разбор и проверки
+   * могут выполняться позже, вне {@link TestParser#assertThatFile(String)}
+   */
+  private final String fixture = FixtureContext.current();
+
+  private ParserRuleContext currentAST;
+
+  /**
+   * Признак построенного дерева. Дерево строится при первой проверке, которой оно нужно
+   */
+  private boolean astBuilt;
+
+  /**
+   * Количество синтаксических ошибок, исправленных при построении дерева
+   */
+  private int astSyntaxErrors;
+
+  /**
+   * Признак прочтения стартовым рулом всего входа при построении дерева. Рулы фрагментов (выражений,
+   * операторов) не заканчиваются EOF, поэтому без этой проверки хвост текста остается незамеченным
+   */
+  private boolean astHitEOF;
+
+  /**
+   * Первая синтаксическая ошибка, найденная последним вызовом {@link #noMatches(int)}
+   */
+  @Getter
+  private SyntaxError syntaxError;
+
+  /**
+   * Стартовый рул, которым разобрана анализируемая строка
+   */
+  private final int startRule;
+
+  /**
+   * Создатель парсера, если разбор отложен до первой проверки, которой не хватает кэшированного результата
+   */
+  private final Supplier<? extends Parser> parserFactory;
+
+  private final ParseResultCache cache;
+  private final String cacheKey;
+  private final boolean cachedMatch;
+
+  /**
+   * Получатель дерева, построенного без ошибок до конца входа, например кэш деревьев {@link TestParser}
+   */
+  private final Consumer<ParserRuleContext> astListener;
+
+  /**
+   * Узлы дерева по идентификаторам рулов. Строится при первой структурной проверке
+   */
+  private Map<Integer, List<ParserRuleContext>> ruleNodes;
 
-  @SneakyThrows
   public ParserAsserts(TestParser<?, ?> testParser, Parser parser) {
+    this(testParser, parser, 0);
+  }
+
+  public ParserAsserts(TestParser<?, ?> testParser, Parser parser, int startRule) {
+    this(testParser, () -> parser, startRule, null, null, null);
+  }
+
+  /**
+   * Создает утверждения для уже построенного дерева, прочитавшего весь вход без ошибок
+   */
+  ParserAsserts(TestParser<?, ?> testParser, Parser parser, int startRule, ParserRuleContext currentAST) {
     this.testParser = testParser;
     this.parser = parser;
-    var fields = testParser.getParserClazz().getDeclaredMethods();
-    var result = Arrays.stream(fields).filter(field -> testParser.ruleName(0).equals(field.getName())).findFirst();
-    if (result.isPresent()) {
-      this.currentAST = (ParserRuleContext) result.get().invoke(parser);
-      this.parser.reset();
-    } else {
-      this.currentAST = null;
+    this.parserFactory = () -> parser;
+    this.startRule = startRule;
+    this.currentAST = currentAST;
+    this.astBuilt = true;
+    this.astHitEOF = true;
+    this.cache = null;
+    this.cacheKey = null;
+    this.cachedMatch = false;
+    this.astListener = null;
+  }
+
+  /**
+   * Создает утверждения с учетом кэша результатов. Если в кэше есть успешный разбор строки,
+   * парсер создается только при проверках, отличных от {@link #matches()}
+   */
+  ParserAsserts(TestParser<?, ?> testParser, Supplier<? extends Parser> parserFactory, int startRule,
+                ParseResultCache cache, String cacheKey, Consumer<ParserRuleContext> astListener) {
+    this.testParser = testParser;
+    this.parserFactory = parserFactory;
+    this.startRule = startRule;
+    this.cache = cache;
+    this.cacheKey = cacheKey;
+    this.astListener = astListener;
+    // сохраненный вердикт не дает покрытия, поэтому при его сборе строка разбирается
+    this.cachedMatch = cache != null && !GrammarCoverage.isEnabled() && cache.isMatched(cacheKey);
+    if (!cachedMatch) {
+      parser();
+    }
+  }
+
+  /**
+   * Выполняет проверку отсутствия ошибок разбора анализируемой строки стартовым рулом
+   *
+   * @return Ассерт (для текучести)
+   * @throws RecognitionException Ошибка парсинга
+   */
+  public ParserAsserts matches() throws RecognitionException {
+    if (cachedMatch) {
+      return this;
     }
+
+    assertThat(currentAST()).isNotNull();
+    matches(currentAST);
+    if (cache != null) {
+      cache.storeMatched(cacheKey);
+    }
+    return this;
   }
 
   /**
@@ -64,23 +178,36 @@ public class ParserAsserts {
    * @throws RecognitionException Ошибка парсинга
    */
   public ParserAsserts matches(ParseTree tree) throws RecognitionException {
-    if (parser.getNumberOfSyntaxErrors() != 0) {
-      throw new RecognitionException(
-        "Syntax error while parsing:\n" + parser.getInputStream().getText(),
-        parser,
-        parser.getInputStream(),
-        parser.getContext()
-      );
-    }
+    parser();
+    return FixtureContext.with(fixture, () -> {
+      var probe = PhaseProbe.start(PhaseEvent.MATCHING);
+      // состояние парсера после построения дерева сброшено, поэтому для него берется запомненный результат
+      var ownTree = astBuilt && currentAST != null && root(tree) == currentAST;
+      var syntaxErrors = ownTree ? astSyntaxErrors : parser.getNumberOfSyntaxErrors();
+      var hitEOF = ownTree ? astHitEOF : parser.getInputStream().LA(1) == Token.EOF;
+      if (syntaxErrors != 0) {
+        throw new RecognitionException(
+          "Syntax error while parsing:\n" + parser.getInputStream().getText(),
+          parser,
+          parser.getInputStream(),
+          parser.getContext()
+        );
+      }
+      matchesNode(tree, hitEOF);
+      probe.complete(TestParser.inputSize(parser.getInputStream()), parser.getInputStream().size(),
+        tree instanceof ParserRuleContext ctx ? testParser.ruleName(ctx.getRuleIndex()) : null);
+      return this;
+    });
+  }
 
+  private void matchesNode(ParseTree tree, boolean hitEOF) throws RecognitionException {
     if (tree instanceof ParserRuleContext ctx) {
       if (ctx.exception != null) {
         throw ctx.exception;
       }
 
       if (ctx.parent == null) {
-        boolean parseSuccess = testParser.getLexerClazz().cast(parser.getInputStream().getTokenSource())._hitEOF;
-        if (!parseSuccess) {
+        if (!hitEOF) {
           throw new RecognitionException(
             "Parse error EOF don't hit\n" + parser.getInputStream().getText(),
             parser,
@@ -92,9 +219,16 @@ public class ParserAsserts {
     }
 
     for (int i = 0; i < tree.getChildCount(); i++) {
-      matches(tree.getChild(i));
+      matchesNode(tree.getChild(i), hitEOF);
     }
-    return this;
+  }
+
+  private static ParseTree root(ParseTree tree) {
+    var root = tree;
+    while (root.getParent() != null) {
+      root = root.getParent();
+    }
+    return root;
   }
 
   /**
@@ -111,6 +245,49 @@ public class ParserAsserts {
     return this;
   }
 
+  /**
+   * Убеждается, что анализируемая строка не читается стартовым рулом (в режиме быстрого отказа)
+   *
+   * @return Ассерт (для текучести)
+   */
+  public ParserAsserts noMatches() {
+    return noMatches(startRule);
+  }
+
+  /**
+   * Убеждается, что анализируемая строка не читается указанным рулом: разбор завершается ошибкой
+   * либо рул прочитывает только начало входа.
+   * Разбор выполняется в режиме быстрого отказа: останавливается на первой синтаксической ошибке
+   * без восстановления, запоминая ошибочный токен и стек правил (см. {@link #getSyntaxError()}).
+   * Полное дерево с восстановлением после ошибок при этом не строится
+   *
+   * @param ruleId идентификатор рула
+   * @return Ассерт (для текучести)
+   */
+  public ParserAsserts noMatches(int ruleId) {
+    parser();
+    var errorHandler = parser.getErrorHandler();
+    var failFastStrategy = new FailFastErrorStrategy();
+    parser.reset();
+    parser.setErrorHandler(failFastStrategy);
+    boolean hitEOF;
+    try {
+      testParser.parseRule(parser, ruleId);
+    } catch (ParseCancellationException e) {
+      // ожидаемое прерывание разбора на первой ошибке
+    } finally {
+      hitEOF = parser.getInputStream().LA(1) == Token.EOF;
+      parser.setErrorHandler(errorHandler);
+      parser.reset();
+    }
+
+    syntaxError = failFastStrategy.getSyntaxError();
+    assertThat(syntaxError != null || !hitEOF)
+      .as("Syntax error expected for " + testParser.ruleName(ruleId) + " (" + ruleId + ")")
+      .isTrue();
+    return this;
+  }
+
   /**
    * Выполняет анализ наличия в дереве узлов с нужным идентификатором в нужном количестве
    *
@@ -119,10 +296,179 @@ public class ParserAsserts {
    * @return Ассерт (для текучести)
    */
   public ParserAsserts containsRule(int ruleId, int count) {
-    assertThat(currentAST).isNotNull();
-    var ruleNodes = Trees.findAllRuleNodes(currentAST, ruleId).stream().map(ParseTree::getText).toList();
+    assertThat(currentAST()).isNotNull();
+    var ruleNodes = ruleNodes(ruleId).stream().map(ParseTree::getText).toList();
     assertThat(ruleNodes).as(testParser.ruleName(ruleId) + " (" + ruleId + ")")
       .isNotNull().hasSize(count);
     return this;
   }
+
+  /**
+   * Проверяет количество узлов дерева, найденных выражением XPath, например "//ifStatement/expression".
+   * Скомпилированное выражение кэшируется в {@link TestParser}, выражения вида //рул вычисляются
+   * по индексу узлов, построенному за один обход дерева
+   *
+   * @param path  Выражение XPath
+   * @param count Ожидаемое количество узлов
+   * @return Ассерт (для текучести)
+   */
+  public ParserAsserts matchesXPath(String path, int count) {
+    assertThat(currentAST()).isNotNull();
+    Collection<? extends ParseTree> nodes;
+    var matcher = DESCENDANT_RULE.matcher(path);
+    if (matcher.matches() && testParser.hasRuleName(matcher.group(1))) {
+      nodes = ruleNodes(testParser.ruleIndex(matcher.group(1)));
+    } else {
+      nodes = testParser.compileXPath(path).evaluate(currentAST);
+    }
+    assertThat(nodes).as(path).hasSize(count);
+    return this;
+  }
+
+  /**
+   * Проверяет, что в дереве есть узел указанного рула, соответствующий шаблону, например
+   * "&lt;lValue&gt; = &lt;expression&gt;;"
+   *
+   * @param pattern Шаблон дерева
+   * @param ruleId  Идентификатор рула шаблона
+   * @return Ассерт (для текучести)
+   */
+  public ParserAsserts matchesPattern(String pattern, int ruleId) {
+    assertThat(patternMatches(pattern, ruleId))
+      .as(pattern + " in " + testParser.ruleName(ruleId) + " (" + ruleId + ")")
+      .isPositive();
+    return this;
+  }
+
+  /**
+   * Проверяет количество узлов указанного рула, соответствующих шаблону.
+   * Скомпилированный шаблон кэшируется в {@link TestParser}, кандидаты берутся из индекса узлов,
+   * построенного за один обход дерева
+   *
+   * @param pattern Шаблон дерева
+   * @param ruleId  Идентификатор рула шаблона
+   * @param count   Ожидаемое количество узлов
+   * @return Ассерт (для текучести)
+   */
+  public ParserAsserts matchesPattern(String pattern, int ruleId, int count) {
+    assertThat(patternMatches(pattern, ruleId))
+      .as(pattern + " in " + testParser.ruleName(ruleId) + " (" + ruleId + ")")
+      .isEqualTo(count);
+    return this;
+  }
+
+  private long patternMatches(String pattern, int ruleId) {
+    assertThat(currentAST()).isNotNull();
+    var compiledPattern = testParser.compilePattern(parser, pattern, ruleId);
+    return ruleNodes(ruleId).stream()
+      .filter(node -> compiledPattern.match(node).succeeded())
+      .count();
+  }
+
+  /**
+   * Возвращает узлы рула из индекса, который строится одним обходом дерева при первом обращении
+   *
+   * @param ruleId Идентификатор рула
+   * @return Узлы рула в порядке обхода
+   */
+  private List<ParserRuleContext> ruleNodes(int ruleId) {
+    if (ruleNodes == null) {
+      ruleNodes = new HashMap<>();
+      indexRuleNodes(currentAST());
+    }
+    return ruleNodes.getOrDefault(ruleId, Collections.emptyList());
+  }
+
+  private void indexRuleNodes(ParseTree tree) {
+    if (tree instanceof ParserRuleContext ctx) {
+      ruleNodes.computeIfAbsent(ctx.getRuleIndex(), key -> new ArrayList<>()).add(ctx);
+    }
+    for (int i = 0; i < tree.getChildCount(); i++) {
+      indexRuleNodes(tree.getChild(i));
+    }
+  }
+
+  /**
+   * Оценивает объем памяти, удерживаемый деревом, построенным стартовым рулом,
+   * включая токены и текст, на которые ссылаются его узлы
+   *
+   * @return Оценка объема с разбивкой по классам и рулам
+   */
+  public RetainedSize retainedSize() {
+    assertThat(currentAST()).isNotNull();
+    return new RetainedSizeWalker(testParser::ruleName).measure(currentAST);
+  }
+
+  /**
+   * Проверяет, что объем памяти, удерживаемый деревом, на байт исходного текста (в UTF-8) не превышает заданный
+   *
+   * @param bytesPerSourceByte допустимое количество байт на байт исходного текста
+   * @return Ассерт (для текучести)
+   */
+  public ParserAsserts retainedBytesPerSourceByteAtMost(double bytesPerSourceByte) {
+    var retainedSize = retainedSize();
+    var tokenSource = parser().getInputStream().getTokenSource();
+    var input = tokenSource == null ? null : tokenSource.getInputStream();
+    var sourceBytes = input == null || input.size() == 0
+      ? 0
+      : input.getText(Interval.of(0, input.size() - 1)).getBytes(StandardCharsets.UTF_8).length;
+
+    assertThat((double) retainedSize.getTotalBytes() / Math.max(sourceBytes, 1))
+      .as("Retained bytes per source byte, by rule: " + retainedSize.getBytesByRule())
+      .isLessThanOrEqualTo(bytesPerSourceByte);
+    return this;
+  }
+
+  private Parser parser() {
+    if (parser == null) {
+      parser = FixtureContext.with(fixture, parserFactory);
+    }
+    return parser;
+  }
+
+  ParserRuleContext currentAST() {
+    if (!astBuilt) {
+      parser();
+      currentAST = FixtureContext.with(fixture, this::buildAST);
+      astBuilt = true;
+      if (astListener != null && currentAST != null && astSyntaxErrors == 0 && astHitEOF) {
+        astListener.accept(currentAST);
+      }
+    }
+    return currentAST;
+  }
+
+  private ParserRuleContext buildAST() {
+    if (!testParser.hasRule(startRule)) {
+      return null;
+    }
+
+    // парсер мог быть использован для разбора вне проверок
+    parser.reset();
+    var probe = PhaseProbe.start(PhaseEvent.AST_BUILDING);
+    var ast = testParser.parseRule(parser, startRule);
+    // сброс парсера обнуляет счетчик ошибок и возвращает поток в начало
+    astSyntaxErrors = parser.getNumberOfSyntaxErrors();
+    astHitEOF = parser.getInputStream().LA(1) == Token.EOF;
+    probe.complete(TestParser.inputSize(parser.getInputStream()), parser.getInputStream().size(),
+      testParser.ruleName(startRule));
+    if (probe.isRecording()) {
+      ParsingMetrics.getInstance().recordNodes(PhaseEvent.AST_BUILDING, FixtureContext.current(),
+        testParser.ruleName(startRule), countNodes(ast));
+    }
+    parser.reset();
+    return ast;
+  }
+
+  static int countNodes(ParseTree tree) {
+    if (tree == null) {
+      return 0;
+    }
+
+    var count = 1;
+    for (int i = 0; i < tree.getChildCount(); i++) {
+      count += countNodes(tree.getChild(i));
+    }
+    return count;
+  }
 }
@@ -0,0 +1,361 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сборщик метрик производительности лексического и синтаксического анализа в рамках JVM.
+ * <p>
+ * Для каждого этапа, фикстуры и стартового рула накапливаются счетчики времени, токенов, символов и узлов дерева,
+ * а также гистограмма длительностей (около 2 КБ на запись).
+ * Записи создаются при первом замере и дальше обновляются без блокировок, так что параллельно выполняемые
+ * тесты не ждут друг друга.
+ * <p>
+ * Сбор включается системным свойством {@value #REPORT_PROPERTY} с путем к файлу отчета, который записывается
+ * при завершении JVM (JSON, либо CSV при расширении .csv), или программно через {@link #setEnabled(boolean)}
+ */
+public final class ParsingMetrics {
+  /**
+   * Системное свойство с путем к файлу отчета
+   */
+  public static final String REPORT_PROPERTY = "bsl.parser.testing.metrics";
+
+  private static final ParsingMetrics INSTANCE = new ParsingMetrics();
+  private static final String INLINE_FIXTURE = "";
+  private static final String NO_RULE = "";
+
+  static {
+    var reportPath = System.getProperty(REPORT_PROPERTY);
+    if (reportPath != null && !reportPath.isBlank()) {
+      INSTANCE.setEnabled(true);
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> INSTANCE.writeReport(Path.of(reportPath))));
+    }
+  }
+
+  /**
+   * Признак сбора метрик
+   */
+  @Getter
+  @Setter
+  private volatile boolean enabled;
+
+  private final Map<Key, FixtureStats> fixtureStats = new ConcurrentHashMap<>();
+  private final Map<Key, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+  private ParsingMetrics() {
+  }
+
+  /**
+   * @return Единственный экземпляр сборщика
+   */
+  public static ParsingMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Учитывает выполнение этапа
+   *
+   * @param phase      Этап
+   * @param fixture    Имя фикстуры либо null
+   * @param rule       Имя стартового рула либо null
+   * @param nanos      Длительность в наносекундах
+   * @param inputSize  Размер текста в символах
+   * @param tokenCount Количество токенов
+   */
+  void record(String phase, String fixture, String rule, long nanos, int inputSize, int tokenCount) {
+    var stats = fixtureStats.computeIfAbsent(new Key(phase, fixtureName(fixture), ruleName(rule)),
+      key -> new FixtureStats());
+    stats.count.increment();
+    stats.nanos.add(nanos);
+    stats.maxNanos.accumulate(nanos);
+    stats.chars.add(inputSize);
+    stats.tokens.add(tokenCount);
+
+    latencies.computeIfAbsent(new Key(phase, fixtureName(fixture), ruleName(rule)), key -> new LatencyHistogram())
+      .record(nanos);
+  }
+
+  /**
+   * Учитывает размер построенного дерева
+   *
+   * @param phase   Этап
+   * @param fixture Имя фикстуры либо null
+   * @param rule    Имя стартового рула либо null
+   * @param nodes   Количество узлов дерева
+   */
+  void recordNodes(String phase, String fixture, String rule, int nodes) {
+    fixtureStats.computeIfAbsent(new Key(phase, fixtureName(fixture), ruleName(rule)), key -> new FixtureStats())
+      .nodes.add(nodes);
+  }
+
+  /**
+   * Очищает накопленные метрики
+   */
+  public void reset() {
+    fixtureStats.clear();
+    latencies.clear();
+  }
+
+  /**
+   * Формирует снимок накопленных метрик по фикстурам, упорядоченный по убыванию суммарного времени
+   *
+   * @return Строки отчета
+   */
+  public List<FixtureReport> fixtureReport() {
+    return fixtureStats.entrySet().stream()
+      .map(entry -> entry.getValue().toReport(entry.getKey()))
+      .sorted(Comparator.comparingLong(FixtureReport::getTotalNanos).reversed())
+      .toList();
+  }
+
+  /**
+   * Формирует снимок распределения длительностей по этапам, фикстурам и стартовым рулам
+   *
+   * @return Строки отчета
+   */
+  public List<LatencyReport> latencyReport() {
+    return latencies.entrySet().stream()
+      .map(entry -> new LatencyReport(entry.getKey().getPhase(), entry.getKey().getFixture(),
+        entry.getKey().getRule(),
+        entry.getValue().count(),
+        entry.getValue().percentile(50),
+        entry.getValue().percentile(90),
+        entry.getValue().percentile(99),
+        entry.getValue().percentile(100)))
+      .sorted(Comparator.comparing(LatencyReport::getPhase)
+        .thenComparing(LatencyReport::getFixture)
+        .thenComparing(LatencyReport::getRule))
+      .toList();
+  }
+
+  /**
+   * Записывает отчет в файл. При расширении .csv отчет по фикстурам записывается в указанный файл,
+   * а распределение длительностей - в соседний файл с суффиксом -latency, иначе формируется JSON
+   *
+   * @param path Путь к файлу отчета
+   */
+  public void writeReport(Path path) {
+    try {
+      var parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+
+      var fileName = path.getFileName().toString();
+      if (fileName.endsWith(".csv")) {
+        Files.writeString(path, fixturesCsv(), StandardCharsets.UTF_8);
+        var latencyFileName = fileName.substring(0, fileName.length() - ".csv".length()) + "-latency.csv";
+        Files.writeString(path.resolveSibling(latencyFileName), latenciesCsv(), StandardCharsets.UTF_8);
+      } else {
+        Files.writeString(path, json(), StandardCharsets.UTF_8);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private String fixturesCsv() {
+    var builder = new StringBuilder(
+      "phase,fixture,rule,count,totalNanos,maxNanos,chars,tokens,nodes,charsPerSecond,tokensPerSecond\n");
+    fixtureReport().forEach(row -> builder
+      .append(csv(row.getPhase())).append(',')
+      .append(csv(row.getFixture())).append(',')
+      .append(csv(row.getRule())).append(',')
+      .append(row.getCount()).append(',')
+      .append(row.getTotalNanos()).append(',')
+      .append(row.getMaxNanos()).append(',')
+      .append(row.getChars()).append(',')
+      .append(row.getTokens()).append(',')
+      .append(row.getNodes()).append(',')
+      .append(row.getCharsPerSecond()).append(',')
+      .append(row.getTokensPerSecond()).append('\n'));
+    return builder.toString();
+  }
+
+  private String latenciesCsv() {
+    var builder = new StringBuilder("phase,fixture,rule,count,p50Nanos,p90Nanos,p99Nanos,maxNanos\n");
+    latencyReport().forEach(row -> builder
+      .append(csv(row.getPhase())).append(',')
+      .append(csv(row.getFixture())).append(',')
+      .append(csv(row.getRule())).append(',')
+      .append(row.getCount()).append(',')
+      .append(row.getP50Nanos()).append(',')
+      .append(row.getP90Nanos()).append(',')
+      .append(row.getP99Nanos()).append(',')
+      .append(row.getMaxNanos()).append('\n'));
+    return builder.toString();
+  }
+
+  private String json() {
+    var builder = new StringBuilder("{\n  \"fixtures\": [");
+    var fixtures = fixtureReport();
+    for (var i = 0; i < fixtures.size(); i++) {
+      var row = fixtures.get(i);
+      builder.append(i == 0 ? "\n" : ",\n")
+        .append("    {\"phase\": ").append(json(row.getPhase()))
+        .append(", \"fixture\": ").append(json(row.getFixture()))
+        .append(", \"rule\": ").append(json(row.getRule()))
+        .append(", \"count\": ").append(row.getCount())
+        .append(", \"totalNanos\": ").append(row.getTotalNanos())
+        .append(", \"maxNanos\": ").append(row.getMaxNanos())
+        .append(", \"chars\": ").append(row.getChars())
+        .append(", \"tokens\": ").append(row.getTokens())
+        .append(", \"nodes\": ").append(row.getNodes())
+        .append(", \"charsPerSecond\": ").append(row.getCharsPerSecond())
+        .append(", \"tokensPerSecond\": ").append(row.getTokensPerSecond())
+        .append('}');
+    }
+    builder.append("\n  ],\n  \"latencies\": [");
+    var rows = latencyReport();
+    for (var i = 0; i < rows.size(); i++) {
+      var row = rows.get(i);
+      builder.append(i == 0 ? "\n" : ",\n")
+        .append("    {\"phase\": ").append(json(row.getPhase()))
+        .append(", \"fixture\": ").append(json(row.getFixture()))
+        .append(", \"rule\": ").append(json(row.getRule()))
+        .append(", \"count\": ").append(row.getCount())
+        .append(", \"p50Nanos\": ").append(row.getP50Nanos())
+        .append(", \"p90Nanos\": ").append(row.getP90Nanos())
+        .append(", \"p99Nanos\": ").append(row.getP99Nanos())
+        .append(", \"maxNanos\": ").append(row.getMaxNanos())
+        .append('}');
+    }
+    return builder.append("\n  ]\n}\n").toString();
+  }
+
+  private static String fixtureName(String fixture) {
+    return fixture == null ? INLINE_FIXTURE : fixture;
+  }
+
+  private static String ruleName(String rule) {
+    return rule == null ? NO_RULE : rule;
+  }
+
+  private static String csv(String value) {
+    if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+      return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    return value;
+  }
+
+  static String json(String value) {
+    var builder = new StringBuilder("\"");
+    for (var i = 0; i < value.length(); i++) {
+      var character = value.charAt(i);
+      switch (character) {
+        case '"' -> builder.append("\\\"");
+        case '\\' -> builder.append("\\\\");
+        case '\n' -> builder.append("\\n");
+        case '\r' -> builder.append("\\r");
+        case '\t' -> builder.append("\\t");
+        default -> {
+          if (character < 0x20) {
+            builder.append(String.format("\\u%04x", (int) character));
+          } else {
+            builder.append(character);
+          }
+        }
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+  private static long perSecond(long amount, long nanos) {
+    return nanos == 0 ? 0 : (long) ((double) amount * TimeUnit.SECONDS.toNanos(1) / nanos);
+  }
+
+  @Value
+  private static class Key {
+    String phase;
+    String fixture;
+    String rule;
+  }
+
+  private static class FixtureStats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder chars = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+
+    private FixtureReport toReport(Key key) {
+      var totalNanos = nanos.sum();
+      var totalChars = chars.sum();
+      var totalTokens = tokens.sum();
+      return new FixtureReport(key.getPhase(), key.getFixture(), key.getRule(), count.sum(), totalNanos,
+        maxNanos.get(), totalChars, totalTokens, nodes.sum(),
+        perSecond(totalChars, totalNanos), perSecond(totalTokens, totalNanos));
+    }
+  }
+
+  /**
+   * Накопленные метрики этапа для фикстуры и стартового рула.
+   * Для строк, переданных без фикстуры, имя фикстуры пустое
+   */
+  @Value
+  public static class FixtureReport {
+    String phase;
+    String fixture;
+    String rule;
+    long count;
+    long totalNanos;
+    long maxNanos;
+    long chars;
+    long tokens;
+    long nodes;
+    long charsPerSecond;
+    long tokensPerSecond;
+  }
+
+  /**
+   * Распределение длительностей этапа для фикстуры и стартового рула.
+   * Для строк, переданных без фикстуры, имя фикстуры пустое
+   */
+  @Value
+  public static class LatencyReport {
+    String phase;
+    String fixture;
+    String rule;
+    long count;
+    long p50Nanos;
+    long p90Nanos;
+    long p99Nanos;
+    long maxNanos;
+  }
+}
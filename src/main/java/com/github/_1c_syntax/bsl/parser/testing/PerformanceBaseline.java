@@ -0,0 +1,224 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.assertj.core.api.SoftAssertions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Эталон стоимости разбора фикстур, хранимый в репозитории, и проверка текущих измерений относительно него.
+ * <p>
+ * Стоимость измеряется в стабильных единицах ({@link ParseCost}), поэтому сравнение не зависит от машины.
+ * Проверка падает, если количество токенов (стоимость лексического анализа), решений парсера
+ * или просмотренных ими токенов выросло больше допуска.
+ * При установленном системном свойстве {@value #UPDATE_PROPERTY}=true вместо проверки эталон перезаписывается
+ * текущими значениями. Допуск по умолчанию задается свойством {@value #TOLERANCE_PROPERTY} (доля, 0.1 = 10%)
+ */
+public final class PerformanceBaseline {
+  /**
+   * Системное свойство, включающее перезапись эталона
+   */
+  public static final String UPDATE_PROPERTY = "bsl.parser.testing.baseline.update";
+
+  /**
+   * Системное свойство с допустимым относительным ростом стоимости
+   */
+  public static final String TOLERANCE_PROPERTY = "bsl.parser.testing.baseline.tolerance";
+
+  private static final double DEFAULT_TOLERANCE = 0.1;
+  private static final String TOKENS = "tokens";
+  private static final String DECISIONS = "decisions";
+  private static final String LOOKAHEAD = "lookahead";
+  private static final String FULL_CONTEXT_FALLBACKS = "fullContextFallbacks";
+
+  private final Path path;
+  private final Map<String, ParseCost> costs;
+  private double tolerance;
+  private boolean update;
+
+  private PerformanceBaseline(Path path, Map<String, ParseCost> costs) {
+    this.path = path;
+    this.costs = costs;
+    this.tolerance = Double.parseDouble(System.getProperty(TOLERANCE_PROPERTY, String.valueOf(DEFAULT_TOLERANCE)));
+    this.update = Boolean.getBoolean(UPDATE_PROPERTY);
+  }
+
+  /**
+   * Загружает эталон из файла. Отсутствующий файл соответствует пустому эталону
+   *
+   * @param path Путь к файлу эталона, например src/test/resources/parser-baseline.properties
+   * @return Эталон
+   */
+  public static PerformanceBaseline load(Path path) {
+    var costs = new TreeMap<String, ParseCost>();
+    if (Files.exists(path)) {
+      var properties = new Properties();
+      try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+        properties.load(reader);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      properties.stringPropertyNames().stream()
+        .filter(key -> key.endsWith("." + TOKENS))
+        .map(key -> key.substring(0, key.length() - TOKENS.length() - 1))
+        .forEach(fixture -> costs.put(fixture, new ParseCost(
+          value(properties, fixture, TOKENS),
+          value(properties, fixture, DECISIONS),
+          value(properties, fixture, LOOKAHEAD),
+          value(properties, fixture, FULL_CONTEXT_FALLBACKS))));
+    }
+    return new PerformanceBaseline(path, costs);
+  }
+
+  /**
+   * Устанавливает допустимый относительный рост стоимости
+   *
+   * @param tolerance Доля, например 0.1 для 10%
+   * @return Эталон (для текучести)
+   */
+  public PerformanceBaseline withTolerance(double tolerance) {
+    this.tolerance = tolerance;
+    return this;
+  }
+
+  /**
+   * Включает или выключает перезапись эталона текущими значениями вместо проверки
+   *
+   * @param update Признак перезаписи
+   * @return Эталон (для текучести)
+   */
+  public PerformanceBaseline withUpdate(boolean update) {
+    this.update = update;
+    return this;
+  }
+
+  /**
+   * Возвращает эталонную стоимость фикстуры
+   *
+   * @param fixture Имя фикстуры
+   * @return Стоимость либо null, если фикстуры нет в эталоне
+   */
+  public synchronized ParseCost get(String fixture) {
+    return costs.get(fixture);
+  }
+
+  /**
+   * Измеряет стоимость разбора фикстуры и сравнивает ее с эталоном
+   *
+   * @param testParser Тестируемый парсер
+   * @param fixture    Имя файла-фикстуры (ресурса)
+   */
+  public void assertCost(TestParser<?, ?> testParser, String fixture) {
+    assertCost(fixture, testParser.measureCost(fixture));
+  }
+
+  /**
+   * Сравнивает стоимость разбора фикстуры с эталоном либо, в режиме перезаписи, сохраняет ее в эталон
+   *
+   * @param fixture Имя фикстуры
+   * @param actual  Измеренная стоимость
+   */
+  public void assertCost(String fixture, ParseCost actual) {
+    if (update) {
+      synchronized (this) {
+        costs.put(fixture, actual);
+        save();
+      }
+      return;
+    }
+
+    var expected = get(fixture);
+    if (expected == null) {
+      throw new AssertionError("No baseline for " + fixture + " in " + path
+        + ", run with -D" + UPDATE_PROPERTY + "=true to record it");
+    }
+
+    var softly = new SoftAssertions();
+    checkGrowth(softly, fixture, TOKENS, expected, actual, ParseCost::getTokens);
+    checkGrowth(softly, fixture, DECISIONS, expected, actual, ParseCost::getDecisions);
+    checkGrowth(softly, fixture, LOOKAHEAD, expected, actual, ParseCost::getLookahead);
+    checkGrowth(softly, fixture, FULL_CONTEXT_FALLBACKS, expected, actual, ParseCost::getFullContextFallbacks);
+    softly.assertAll();
+  }
+
+  /**
+   * Записывает эталон в файл. Ключи упорядочены, чтобы изменения эталона читались в истории репозитория
+   */
+  public synchronized void save() {
+    var builder = new StringBuilder("# Parse cost baseline, rewrite with -D" + UPDATE_PROPERTY + "=true\n");
+    costs.forEach((fixture, cost) -> {
+      var key = escape(fixture);
+      builder.append(key).append('.').append(TOKENS).append('=').append(cost.getTokens()).append('\n')
+        .append(key).append('.').append(DECISIONS).append('=').append(cost.getDecisions()).append('\n')
+        .append(key).append('.').append(LOOKAHEAD).append('=').append(cost.getLookahead()).append('\n')
+        .append(key).append('.').append(FULL_CONTEXT_FALLBACKS).append('=').append(cost.getFullContextFallbacks())
+        .append('\n');
+    });
+
+    try {
+      var parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Files.writeString(path, builder.toString(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void checkGrowth(SoftAssertions softly, String fixture, String metric,
+                           ParseCost expected, ParseCost actual, ToLongFunction<ParseCost> getter) {
+    var expectedValue = getter.applyAsLong(expected);
+    var actualValue = getter.applyAsLong(actual);
+    var limit = (long) Math.floor(expectedValue * (1 + tolerance));
+    softly.assertThat(actualValue)
+      .as("%s %s (baseline %d, tolerance %.0f%%)", fixture, metric, expectedValue, tolerance * 100)
+      .isLessThanOrEqualTo(limit);
+  }
+
+  private static long value(Properties properties, String fixture, String metric) {
+    return Long.parseLong(properties.getProperty(fixture + "." + metric, "0").trim());
+  }
+
+  static String escape(String key) {
+    var builder = new StringBuilder();
+    for (var i = 0; i < key.length(); i++) {
+      var character = key.charAt(i);
+      if ("\\=: #!".indexOf(character) >= 0) {
+        builder.append('\\');
+      }
+      builder.append(character);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие Java Flight Recorder об этапе тестирования: лексический анализ, создание парсера,
+ * построение дерева, проверка дерева. Длительность этапа фиксируется самим событием.
+ * При выключенной записи создание и завершение события практически ничего не стоят
+ */
+@Name("com.github._1c_syntax.bsl.parser.testing.Phase")
+@Label("Parser Testing Phase")
+@Category("BSL Parser Testing")
+@Description("Lexing, parsing and assertion phases of parser tests")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+  static final String LEXING = "lexing";
+  static final String PARSER_CREATION = "parser creation";
+  static final String AST_BUILDING = "AST building";
+  static final String MATCHING = "matching";
+
+  @Label("Phase")
+  String phase;
+
+  @Label("Fixture")
+  @Description("Fixture resource name, empty for inline input")
+  String fixture;
+
+  @Label("Input Size")
+  @Description("Input size in characters")
+  int inputSize;
+
+  @Label("Token Count")
+  int tokenCount;
+
+  @Label("Rule")
+  String rule;
+
+  /**
+   * Создает событие и начинает отсчет длительности этапа
+   *
+   * @param phase Этап
+   * @return Событие
+   */
+  static PhaseEvent start(String phase) {
+    var event = new PhaseEvent();
+    event.phase = phase;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Завершает отсчет длительности и записывает событие, если запись включена
+   *
+   * @param inputSize  Размер входного текста в символах
+   * @param tokenCount Количество токенов
+   * @param rule       Имя рула либо null
+   */
+  void complete(int inputSize, int tokenCount, String rule) {
+    end();
+    if (shouldCommit()) {
+      var currentFixture = FixtureContext.current();
+      this.fixture = currentFixture == null ? "" : currentFixture;
+      this.inputSize = inputSize;
+      this.tokenCount = tokenCount;
+      this.rule = rule;
+      commit();
+    }
+  }
+}
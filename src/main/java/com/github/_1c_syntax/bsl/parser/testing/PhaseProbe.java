@@ -0,0 +1,80 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+/**
+ * Замер этапа тестирования: передает результат в событие JFR ({@link PhaseEvent})
+ * и, если сбор включен, в метрики ({@link ParsingMetrics}) и историю стоимости фикстур ({@link FixtureCosts})
+ */
+final class PhaseProbe {
+  private final String phase;
+  private final PhaseEvent event;
+  private final long startNanos;
+
+  private PhaseProbe(String phase) {
+    this.phase = phase;
+    this.event = PhaseEvent.start(phase);
+    this.startNanos = ParsingMetrics.getInstance().isEnabled() || FixtureCosts.getInstance().isRecording()
+      ? System.nanoTime()
+      : 0;
+  }
+
+  /**
+   * Начинает замер этапа
+   *
+   * @param phase Этап
+   * @return Замер
+   */
+  static PhaseProbe start(String phase) {
+    return new PhaseProbe(phase);
+  }
+
+  /**
+   * Завершает замер этапа
+   *
+   * @param inputSize  Размер входного текста в символах
+   * @param tokenCount Количество токенов
+   * @param rule       Имя рула либо null
+   */
+  void complete(int inputSize, int tokenCount, String rule) {
+    event.complete(inputSize, tokenCount, rule);
+    if (startNanos == 0) {
+      return;
+    }
+
+    var nanos = System.nanoTime() - startNanos;
+    var fixture = FixtureContext.current();
+    if (ParsingMetrics.getInstance().isEnabled()) {
+      ParsingMetrics.getInstance().record(phase, fixture, rule, nanos, inputSize, tokenCount);
+    }
+    if (fixture != null && FixtureCosts.getInstance().isRecording()) {
+      FixtureCosts.getInstance().record(fixture, nanos);
+    }
+  }
+
+  /**
+   * @return Признак сбора метрик в рамках замера
+   */
+  boolean isRecording() {
+    return startNanos != 0 && ParsingMetrics.getInstance().isEnabled();
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.dfa.DFAState;
+
+/**
+ * Симулятор ATN лексера, считающий промахи DFA: переходы, которых еще нет в DFA и которые
+ * вычисляются симуляцией ATN, а также запуски симуляции при отсутствии стартового состояния режима.
+ * Переходы, вычисленные до подмены симулятора, промахами не считаются: профиль показывает прогрев DFA
+ * только на профилируемых текстах
+ */
+class ProfilingLexerATNSimulator extends LexerATNSimulator {
+  private long misses;
+
+  ProfilingLexerATNSimulator(Lexer lexer, ATN atn) {
+    super(lexer, atn);
+  }
+
+  /**
+   * @return Количество промахов DFA с момента создания
+   */
+  long getMisses() {
+    return misses;
+  }
+
+  @Override
+  protected int matchATN(CharStream input) {
+    misses++;
+    return super.matchATN(input);
+  }
+
+  @Override
+  protected DFAState computeTargetState(CharStream input, DFAState s, int t) {
+    misses++;
+    return super.computeTargetState(input, s, t);
+  }
+}
@@ -26,7 +26,18 @@ import lombok.experimental.UtilityClass;
 import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.stream.Stream;
 
 /**
  * Вспомогательный класс для чтения файлов-фикстур
@@ -55,4 +66,74 @@ public class ResourceUtils {
     }
     return content;
   }
+
+  /**
+   * Лениво перечисляет файлы-фикстуры каталога (включая вложенные). Каталог ищется среди тестовых ресурсов,
+   * в том числе упакованных в jar, а если не найден - в файловой системе. Содержимое файлов не читается.
+   * Возвращаемый поток следует закрыть после использования
+   *
+   * @param folderName Имя каталога ресурсов либо путь к каталогу
+   * @param extensions Расширения файлов без точки. Если не заданы, возвращаются все файлы
+   * @return Фикстуры каталога
+   */
+  public Stream<Fixture> fixtures(@NonNull String folderName, String... extensions) {
+    if (folderName.isBlank()) {
+      throw new IllegalArgumentException("Resource name is blank");
+    }
+
+    var folder = findFolder(folderName);
+    var suffixes = Arrays.stream(extensions).map(extension -> "." + extension.toLowerCase(Locale.ROOT)).toList();
+    var prefix = folderName.endsWith("/") ? folderName : folderName + "/";
+
+    try {
+      return Files.walk(folder)
+        .filter(Files::isRegularFile)
+        .filter(path -> suffixes.isEmpty() || suffixes.stream()
+          .anyMatch(suffix -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(suffix)))
+        .map(path -> new Fixture(prefix + relativeName(folder, path), path));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Path findFolder(String folderName) {
+    var classLoader = Thread.currentThread().getContextClassLoader();
+    var url = classLoader.getResource(folderName);
+    if (url == null) {
+      var path = Path.of(folderName);
+      if (Files.isDirectory(path)) {
+        return path;
+      }
+      throw new IllegalArgumentException("Resource folder not found: " + folderName);
+    }
+
+    try {
+      var uri = url.toURI();
+      if ("jar".equals(uri.getScheme())) {
+        openFileSystem(uri);
+      }
+      return Path.of(uri);
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException("Wrong resource folder: " + folderName, e);
+    }
+  }
+
+  private void openFileSystem(URI uri) {
+    try {
+      FileSystems.newFileSystem(uri, Collections.emptyMap());
+    } catch (FileSystemAlreadyExistsException e) {
+      // уже открыта при предыдущем перечислении
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private String relativeName(Path folder, Path path) {
+    var relative = folder.relativize(path);
+    var names = new String[relative.getNameCount()];
+    for (var i = 0; i < names.length; i++) {
+      names[i] = relative.getName(i).toString();
+    }
+    return String.join("/", names);
+  }
 }
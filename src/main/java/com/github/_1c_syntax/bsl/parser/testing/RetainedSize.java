@@ -0,0 +1,54 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Оценка объема памяти, удерживаемой деревом разбора или списком токенов.
+ * Размеры объектов рассчитываются для 64-битной JVM со сжатыми указателями
+ */
+@Value
+public class RetainedSize {
+  /**
+   * Суммарный объем в байтах
+   */
+  long totalBytes;
+
+  /**
+   * Количество объектов
+   */
+  long objectCount;
+
+  /**
+   * Объем по классам объектов, по убыванию
+   */
+  Map<String, Long> bytesByType;
+
+  /**
+   * Объем по рулам: узел рула и объекты, впервые достигнутые из него (дочерние списки, терминальные узлы,
+   * токены), по убыванию. Для списка токенов пустой
+   */
+  Map<String, Long> bytesByRule;
+}
@@ -0,0 +1,255 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.dfa.DFA;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Обходчик графа объектов, оценивающий удерживаемый объем памяти без агента инструментирования.
+ * <p>
+ * Размер объекта считается по его полям для 64-битной JVM со сжатыми указателями: заголовок 12 байт,
+ * ссылка 4 байта, выравнивание на 8 байт. Обход не заходит в разделяемые структуры грамматики
+ * (лексер, парсер, ATN, DFA), классы, потоки, перечисления и в родителя корневого узла.
+ * Поля классов JDK, закрытые модульной системой, не читаются: коллекции и строки обходятся
+ * через открытый API с оценкой размера внутренних массивов
+ */
+final class RetainedSizeWalker {
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int ALIGNMENT = 8;
+  private static final int MAP_ENTRY = 32;
+
+  private final IntFunction<String> ruleNames;
+  private final Map<Class<?>, ClassLayout> layouts = new HashMap<>();
+  private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Map<String, Long> bytesByType = new HashMap<>();
+  private final Map<String, Long> bytesByRule = new HashMap<>();
+  private long totalBytes;
+  private long objectCount;
+
+  /**
+   * @param ruleNames Функция получения имени рула по идентификатору
+   */
+  RetainedSizeWalker(IntFunction<String> ruleNames) {
+    this.ruleNames = ruleNames;
+  }
+
+  /**
+   * Оценивает объем памяти, удерживаемый объектом
+   *
+   * @param root Корневой объект
+   * @return Оценка объема
+   */
+  RetainedSize measure(Object root) {
+    var stack = new ArrayDeque<Node>();
+    push(stack, root, null);
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+      var object = node.object;
+      var owner = object instanceof ParserRuleContext ctx ? ruleNames.apply(ctx.getRuleIndex()) : node.owner;
+      var clazz = object.getClass();
+
+      long size;
+      if (clazz.isArray()) {
+        size = arraySize(clazz.getComponentType(), Array.getLength(object));
+        if (!clazz.getComponentType().isPrimitive()) {
+          for (var element : (Object[]) object) {
+            push(stack, element, owner);
+          }
+        }
+      } else {
+        var layout = layout(clazz);
+        size = layout.size;
+        if (object instanceof String string) {
+          size += arraySize(byte.class, isLatin1(string) ? string.length() : string.length() * 2);
+        } else if (!layout.accessible) {
+          size += visitClosed(stack, object, owner);
+        }
+        for (var field : layout.references) {
+          push(stack, read(field, object), owner);
+        }
+      }
+
+      account(clazz.getName(), owner, size);
+    }
+
+    return new RetainedSize(totalBytes, objectCount, sorted(bytesByType), sorted(bytesByRule));
+  }
+
+  private long visitClosed(ArrayDeque<Node> stack, Object object, String owner) {
+    if (object instanceof Collection<?> collection) {
+      collection.forEach(element -> push(stack, element, owner));
+      return arraySize(Object.class, collection.size());
+    } else if (object instanceof Map<?, ?> map) {
+      map.forEach((key, value) -> {
+        push(stack, key, owner);
+        push(stack, value, owner);
+      });
+      return arraySize(Object.class, map.size() * 4 / 3 + 1) + (long) map.size() * MAP_ENTRY;
+    }
+    return 0;
+  }
+
+  private void push(ArrayDeque<Node> stack, Object object, String owner) {
+    if (object == null || isShared(object) || !visited.add(object)) {
+      return;
+    }
+    stack.push(new Node(object, owner));
+  }
+
+  private void account(String type, String owner, long size) {
+    totalBytes += size;
+    objectCount++;
+    bytesByType.merge(type, size, Long::sum);
+    if (owner != null) {
+      bytesByRule.merge(owner, size, Long::sum);
+    }
+  }
+
+  private ClassLayout layout(Class<?> clazz) {
+    return layouts.computeIfAbsent(clazz, ClassLayout::new);
+  }
+
+  private static Object read(Field field, Object object) {
+    try {
+      return field.get(object);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static boolean isShared(Object object) {
+    return object instanceof Class
+      || object instanceof ClassLoader
+      || object instanceof Thread
+      || object instanceof Enum
+      || object instanceof Recognizer
+      || object instanceof ATN
+      || object instanceof ATNState
+      || object instanceof ATNSimulator
+      || object instanceof DFA;
+  }
+
+  private static boolean isLatin1(String string) {
+    for (var i = 0; i < string.length(); i++) {
+      if (string.charAt(i) > 0xFF) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static long arraySize(Class<?> componentType, int length) {
+    return align(ARRAY_HEADER + (long) length * fieldSize(componentType));
+  }
+
+  private static long align(long size) {
+    return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  private static int fieldSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    } else if (type == byte.class || type == boolean.class) {
+      return 1;
+    }
+    return REFERENCE;
+  }
+
+  private static Map<String, Long> sorted(Map<String, Long> values) {
+    var result = new LinkedHashMap<String, Long>();
+    values.entrySet().stream()
+      .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+      .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+    return result;
+  }
+
+  private static final class Node {
+    private final Object object;
+    private final String owner;
+
+    private Node(Object object, String owner) {
+      this.object = object;
+      this.owner = owner;
+    }
+  }
+
+  /**
+   * Размер экземпляра класса и его читаемые ссылочные поля
+   */
+  private static final class ClassLayout {
+    private final long size;
+    private final List<Field> references = new ArrayList<>();
+    private boolean accessible = true;
+
+    private ClassLayout(Class<?> clazz) {
+      long fieldsSize = 0;
+      for (var current = clazz; current != null; current = current.getSuperclass()) {
+        for (var field : current.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          fieldsSize += fieldSize(field.getType());
+          if (field.getType().isPrimitive() || isParentLink(field)) {
+            continue;
+          }
+          if (field.trySetAccessible()) {
+            references.add(field);
+          } else {
+            accessible = false;
+          }
+        }
+      }
+      this.size = align(OBJECT_HEADER + fieldsSize);
+    }
+
+    private static boolean isParentLink(Field field) {
+      return field.getDeclaringClass() == RuleContext.class && "parent".equals(field.getName());
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Профиль разбора по рулам: время и выделенная память вызовов рулов по каждой фикстуре и по корпусу в целом.
+ * Строки отчетов упорядочены по убыванию собственного времени рула
+ */
+@Value
+public class RuleProfile {
+  /**
+   * Профили фикстур в порядке разбора
+   */
+  Map<String, List<RuleTiming>> fixtures;
+
+  /**
+   * Профиль корпуса: суммы по всем фикстурам
+   */
+  List<RuleTiming> corpus;
+
+  /**
+   * Формирует профиль, суммируя профили фикстур в профиль корпуса
+   *
+   * @param fixtures Профили фикстур
+   * @return Профиль
+   */
+  static RuleProfile of(Map<String, List<RuleTiming>> fixtures) {
+    var totals = new TreeMap<String, RuleTiming>();
+    fixtures.values().forEach(timings -> timings.forEach(timing -> totals.merge(timing.getRule(), timing,
+      RuleTiming::plus)));
+
+    var sortedFixtures = new LinkedHashMap<String, List<RuleTiming>>();
+    fixtures.forEach((fixture, timings) -> sortedFixtures.put(fixture, sorted(timings)));
+    return new RuleProfile(Collections.unmodifiableMap(sortedFixtures), sorted(totals.values()));
+  }
+
+  private static List<RuleTiming> sorted(Iterable<RuleTiming> timings) {
+    var result = new ArrayList<RuleTiming>();
+    timings.forEach(result::add);
+    result.sort(Comparator.comparingLong(RuleTiming::getExclusiveNanos).reversed()
+      .thenComparing(RuleTiming::getRule));
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Накопленные показатели рула. Полное время рекурсивных рулов учитывает вложенные вызовы многократно,
+   * собственное время и память - без вызовов дочерних рулов
+   */
+  @Value
+  public static class RuleTiming {
+    String rule;
+    long invocations;
+    long inclusiveNanos;
+    long exclusiveNanos;
+    long allocatedBytes;
+    long tokens;
+
+    private RuleTiming plus(RuleTiming other) {
+      return new RuleTiming(rule,
+        invocations + other.invocations,
+        inclusiveNanos + other.inclusiveNanos,
+        exclusiveNanos + other.exclusiveNanos,
+        allocatedBytes + other.allocatedBytes,
+        tokens + other.tokens);
+    }
+  }
+}
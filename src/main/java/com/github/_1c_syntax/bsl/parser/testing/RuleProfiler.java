@@ -0,0 +1,178 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Слушатель разбора, замеряющий время, выделенную потоком память и количество токенов каждого вызова рула.
+ * Стек вызовов хранится в массивах примитивов, чтобы сам замер не выделял память
+ */
+class RuleProfiler implements ParseTreeListener {
+  private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocations();
+
+  private final long[] invocations;
+  private final long[] inclusiveNanos;
+  private final long[] exclusiveNanos;
+  private final long[] allocatedBytes;
+  private final long[] tokens;
+
+  private ParserRuleContext[] contexts = new ParserRuleContext[64];
+  private long[] startNanos = new long[64];
+  private long[] startBytes = new long[64];
+  private long[] childNanos = new long[64];
+  private long[] childBytes = new long[64];
+  private int depth;
+
+  /**
+   * @param ruleCount Количество рулов парсера
+   */
+  RuleProfiler(int ruleCount) {
+    invocations = new long[ruleCount];
+    inclusiveNanos = new long[ruleCount];
+    exclusiveNanos = new long[ruleCount];
+    allocatedBytes = new long[ruleCount];
+    tokens = new long[ruleCount];
+  }
+
+  @Override
+  public void enterEveryRule(ParserRuleContext ctx) {
+    var nanos = System.nanoTime();
+    var bytes = currentAllocatedBytes();
+    if (depth > 0 && contexts[depth - 1].parent == ctx) {
+      // левая рекурсия: прочитанный контекст становится дочерним для нового контекста того же рула
+      depth--;
+      var frameNanos = startNanos[depth];
+      var frameBytes = startBytes[depth];
+      record(depth, nanos, bytes);
+      push(ctx, frameNanos, frameBytes, nanos - frameNanos, bytes - frameBytes);
+    } else {
+      push(ctx, nanos, bytes, 0, 0);
+    }
+  }
+
+  @Override
+  public void exitEveryRule(ParserRuleContext ctx) {
+    var nanos = System.nanoTime();
+    var bytes = currentAllocatedBytes();
+    if (depth == 0) {
+      return;
+    }
+
+    depth--;
+    record(depth, nanos, bytes);
+    if (depth > 0) {
+      childNanos[depth - 1] += nanos - startNanos[depth];
+      childBytes[depth - 1] += bytes - startBytes[depth];
+    }
+  }
+
+  @Override
+  public void visitTerminal(TerminalNode node) {
+    // не используется
+  }
+
+  @Override
+  public void visitErrorNode(ErrorNode node) {
+    // не используется
+  }
+
+  /**
+   * Возвращает накопленные показатели вызывавшихся рулов
+   *
+   * @param ruleName Имя рула по идентификатору
+   * @return Показатели рулов
+   */
+  List<RuleProfile.RuleTiming> timings(IntFunction<String> ruleName) {
+    var result = new ArrayList<RuleProfile.RuleTiming>();
+    for (var rule = 0; rule < invocations.length; rule++) {
+      if (invocations[rule] > 0) {
+        result.add(new RuleProfile.RuleTiming(ruleName.apply(rule), invocations[rule], inclusiveNanos[rule],
+          exclusiveNanos[rule], allocatedBytes[rule], tokens[rule]));
+      }
+    }
+    return result;
+  }
+
+  private void push(ParserRuleContext ctx, long nanos, long bytes, long nestedNanos, long nestedBytes) {
+    if (depth == contexts.length) {
+      var capacity = depth * 2;
+      contexts = Arrays.copyOf(contexts, capacity);
+      startNanos = Arrays.copyOf(startNanos, capacity);
+      startBytes = Arrays.copyOf(startBytes, capacity);
+      childNanos = Arrays.copyOf(childNanos, capacity);
+      childBytes = Arrays.copyOf(childBytes, capacity);
+    }
+    contexts[depth] = ctx;
+    startNanos[depth] = nanos;
+    startBytes[depth] = bytes;
+    childNanos[depth] = nestedNanos;
+    childBytes[depth] = nestedBytes;
+    depth++;
+  }
+
+  private void record(int frame, long nanos, long bytes) {
+    var ctx = contexts[frame];
+    contexts[frame] = null;
+    var rule = ctx.getRuleIndex();
+    if (rule < 0 || rule >= invocations.length) {
+      return;
+    }
+
+    var inclusive = nanos - startNanos[frame];
+    invocations[rule]++;
+    inclusiveNanos[rule] += inclusive;
+    exclusiveNanos[rule] += inclusive - childNanos[frame];
+    allocatedBytes[rule] += bytes - startBytes[frame] - childBytes[frame];
+    tokens[rule] += tokenSpan(ctx);
+  }
+
+  private static long tokenSpan(ParserRuleContext ctx) {
+    var start = ctx.getStart();
+    var stop = ctx.getStop();
+    if (start == null || stop == null || stop.getTokenIndex() < start.getTokenIndex()) {
+      return 0;
+    }
+    return (long) stop.getTokenIndex() - start.getTokenIndex() + 1;
+  }
+
+  private static long currentAllocatedBytes() {
+    return ALLOCATIONS == null ? 0 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+  }
+
+  private static com.sun.management.ThreadMXBean allocations() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+      && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+      return threads;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+import org.antlr.v4.runtime.Token;
+
+import java.util.List;
+
+/**
+ * Результат параллельного лексического анализа текста, разделенного на части по началам строк,
+ * и его сверки с последовательным анализом
+ */
+@Value
+public class SplitLexResult {
+  /**
+   * Токены, сшитые из частей, с исправленными индексами
+   */
+  List<Token> tokens;
+
+  /**
+   * Смещения начала частей, на которых лексеры соседних частей совпали по состоянию
+   */
+  List<Integer> splitPoints;
+
+  /**
+   * Смещения, оказавшиеся внутри токена либо не в режиме по умолчанию. Такие части прочитаны
+   * лексером предыдущей части
+   */
+  List<Integer> unsafeSplitPoints;
+
+  /**
+   * Индекс первого токена, отличающегося от последовательного анализа, либо -1
+   */
+  int firstMismatch;
+
+  /**
+   * Время параллельного анализа, включая сшивку
+   */
+  long parallelNanos;
+
+  /**
+   * Время последовательного анализа
+   */
+  long sequentialNanos;
+
+  /**
+   * @return Признак совпадения результата с последовательным анализом
+   */
+  public boolean matchesSequential() {
+    return firstMismatch < 0;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Getter;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Реализация утверждений для потокового разбора: текст читается без буферизации, дерево не строится,
+ * разбор останавливается на первой синтаксической ошибке. Память ограничена глубиной просмотра вперед
+ */
+public class StreamingAsserts {
+  private final TestParser<?, ?> testParser;
+  private final int startRule;
+
+  /**
+   * Первая синтаксическая ошибка либо null, если ошибок нет
+   */
+  @Getter
+  private final SyntaxError syntaxError;
+
+  /**
+   * Признак того, что разбор дошел до конца текста
+   */
+  @Getter
+  private final boolean hitEOF;
+
+  /**
+   * Количество прочитанных парсером токенов
+   */
+  @Getter
+  private final int tokenCount;
+
+  /**
+   * Наибольшее количество одновременно удерживаемых токенов
+   */
+  @Getter
+  private final int peakBufferedTokens;
+
+  StreamingAsserts(TestParser<?, ?> testParser, Parser parser, BufferTrackingTokenStream tokenStream, int startRule) {
+    this.testParser = testParser;
+    this.startRule = startRule;
+
+    var failFastStrategy = new FailFastErrorStrategy();
+    parser.setErrorHandler(failFastStrategy);
+    var probe = PhaseProbe.start(PhaseEvent.MATCHING);
+    try {
+      testParser.parseRule(parser, startRule);
+    } catch (ParseCancellationException e) {
+      // разбор прерван на первой ошибке
+    }
+
+    this.syntaxError = failFastStrategy.getSyntaxError();
+    this.hitEOF = syntaxError == null && tokenStream.LA(1) == Token.EOF;
+    this.tokenCount = tokenStream.index();
+    this.peakBufferedTokens = tokenStream.getPeakBufferedTokens();
+    probe.complete(0, tokenCount, testParser.ruleName(startRule));
+  }
+
+  /**
+   * Проверяет, что текст разобран стартовым рулом без ошибок до конца
+   *
+   * @return Ассерт (для текучести)
+   */
+  public StreamingAsserts matches() {
+    assertThat(syntaxError)
+      .as("Syntax error while parsing " + testParser.ruleName(startRule) + " (" + startRule + ")")
+      .isNull();
+    assertThat(hitEOF).as("Parse error EOF don't hit").isTrue();
+    return this;
+  }
+
+  /**
+   * Проверяет, что текст не читается стартовым рулом
+   *
+   * @return Ассерт (для текучести)
+   */
+  public StreamingAsserts noMatches() {
+    assertThat(syntaxError != null || !hitEOF)
+      .as("Syntax error expected for " + testParser.ruleName(startRule) + " (" + startRule + ")")
+      .isTrue();
+    return this;
+  }
+
+  /**
+   * Проверяет, что количество одновременно удерживаемых токенов не превысило заданное
+   *
+   * @param maxTokens допустимое количество токенов
+   * @return Ассерт (для текучести)
+   */
+  public StreamingAsserts peakBufferedTokensAtMost(int maxTokens) {
+    assertThat(peakBufferedTokens).as("Peak buffered tokens").isLessThanOrEqualTo(maxTokens);
+    return this;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Результат нагрузочного прогона парсера в несколько потоков (см. {@link TestParser#stress(List, int...)})
+ */
+@Value
+public class StressReport {
+  /**
+   * Признак выполнения на виртуальных потоках (доступны начиная с Java 21)
+   */
+  boolean virtualThreads;
+
+  /**
+   * Однопоточный замер, относительно которого считается масштабирование
+   */
+  Level singleThreaded;
+
+  /**
+   * Замеры для каждого количества потоков
+   */
+  List<Level> levels;
+
+  /**
+   * Описания расхождений результатов разбора с однопоточными
+   */
+  List<String> mismatches;
+
+  /**
+   * @return Признак совпадения всех результатов разбора с однопоточными
+   */
+  public boolean isConsistent() {
+    return mismatches.isEmpty();
+  }
+
+  /**
+   * Замер пропускной способности для заданного количества потоков
+   */
+  @Value
+  public static class Level {
+    /**
+     * Количество потоков
+     */
+    int threads;
+
+    /**
+     * Количество выполненных разборов
+     */
+    long parses;
+
+    /**
+     * Количество прочитанных токенов
+     */
+    long tokens;
+
+    /**
+     * Длительность прогона в наносекундах
+     */
+    long nanos;
+
+    /**
+     * Доля линейного масштабирования относительно однопоточного прогона с учетом числа процессоров:
+     * 1 - идеальное масштабирование, заметно меньшие значения указывают на конкуренцию,
+     * например за общий кэш DFA
+     */
+    double efficiency;
+
+    /**
+     * @return Разборов в секунду
+     */
+    public double getParsesPerSecond() {
+      return nanos == 0 ? 0 : parses * 1_000_000_000.0 / nanos;
+    }
+
+    /**
+     * @return Токенов в секунду
+     */
+    public double getTokensPerSecond() {
+      return nanos == 0 ? 0 : tokens * 1_000_000_000.0 / nanos;
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный прогон: разбирает корпус текстов сначала в одном потоке (прогрев и замер), затем в заданном количестве потоков,
+ * каждый со своими экземплярами лексера и парсера, и сверяет результаты. Экземпляры одной грамматики
+ * используют общие статические DFA и кэш контекстов предсказания, поэтому прогон выявляет
+ * как ошибки потокобезопасности, так и ограничения масштабирования
+ */
+final class StressRunner<PARSER extends Parser, LEXER extends Lexer> {
+  private final Class<PARSER> parserClazz;
+  private final Class<LEXER> lexerClazz;
+  private final List<String> corpus;
+
+  StressRunner(Class<PARSER> parserClazz, Class<LEXER> lexerClazz, List<String> corpus) {
+    this.parserClazz = parserClazz;
+    this.lexerClazz = lexerClazz;
+    this.corpus = List.copyOf(corpus);
+  }
+
+  StressReport run(int... threadCounts) {
+    // первый проход прогревает общий DFA и дает эталонные результаты, замеряется второй
+    var expected = new ArrayList<Fingerprint>(corpus.size());
+    var testParser = newTestParser();
+    for (var input : corpus) {
+      expected.add(parse(testParser, input));
+    }
+
+    var mismatches = Collections.synchronizedList(new ArrayList<String>());
+    var tokens = 0L;
+    var start = System.nanoTime();
+    for (var index = 0; index < corpus.size(); index++) {
+      var actual = parse(testParser, corpus.get(index));
+      if (!actual.equals(expected.get(index))) {
+        mismatches.add("1 thread, input " + index + ": expected " + expected.get(index) + ", actual " + actual);
+      }
+      tokens += actual.getTokens();
+    }
+    var singleThreaded = new StressReport.Level(1, corpus.size(), tokens, System.nanoTime() - start, 1);
+
+    var virtualThreads = supportsVirtualThreads();
+    var levels = new ArrayList<StressReport.Level>(threadCounts.length);
+    for (var threads : threadCounts) {
+      levels.add(runLevel(threads, expected, singleThreaded, mismatches));
+    }
+    return new StressReport(virtualThreads, singleThreaded, List.copyOf(levels), List.copyOf(mismatches));
+  }
+
+  private StressReport.Level runLevel(int threads, List<Fingerprint> expected, StressReport.Level singleThreaded,
+                                      List<String> mismatches) {
+    var cursor = new AtomicInteger();
+    var parses = new LongAdder();
+    var tokens = new LongAdder();
+    var executor = newExecutor(threads);
+    var start = System.nanoTime();
+    try {
+      var futures = new ArrayList<Future<?>>(threads);
+      for (var worker = 0; worker < threads; worker++) {
+        futures.add(executor.submit(() -> {
+          var testParser = newTestParser();
+          int index;
+          while ((index = cursor.getAndIncrement()) < corpus.size()) {
+            try {
+              var actual = parse(testParser, corpus.get(index));
+              if (!actual.equals(expected.get(index))) {
+                mismatches.add(threads + " threads, input " + index + ": expected " + expected.get(index)
+                  + ", actual " + actual);
+              }
+              tokens.add(actual.getTokens());
+            } catch (RuntimeException | StackOverflowError e) {
+              mismatches.add(threads + " threads, input " + index + ": " + e);
+            }
+            parses.increment();
+          }
+        }));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+
+    var nanos = System.nanoTime() - start;
+    var parallelism = Math.min(threads, Runtime.getRuntime().availableProcessors());
+    var efficiency = nanos == 0 ? 0 : (double) singleThreaded.getNanos() / nanos / parallelism;
+    return new StressReport.Level(threads, parses.sum(), tokens.sum(), nanos, efficiency);
+  }
+
+  /**
+   * Создает экземпляр {@link TestParser} без кэша деревьев: разборы прогона его не используют
+   */
+  private TestParser<PARSER, LEXER> newTestParser() {
+    var testParser = new TestParser<>(parserClazz, lexerClazz);
+    testParser.setTreeCacheSize(0);
+    return testParser;
+  }
+
+  private Fingerprint parse(TestParser<PARSER, LEXER> testParser, String input) {
+    var parser = testParser.createParser(Lexer.DEFAULT_MODE, input);
+    parser.removeErrorListeners();
+    var tree = testParser.parseRule(parser, 0);
+    return new Fingerprint(treeHash(tree), parser.getNumberOfSyntaxErrors(), parser.getInputStream().size());
+  }
+
+  /**
+   * Хэш структуры дерева: типы рулов, типы и позиции токенов в порядке обхода
+   */
+  private static long treeHash(ParseTree root) {
+    var hash = 1125899906842597L;
+    var stack = new ArrayDeque<ParseTree>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+      if (node instanceof TerminalNode terminalNode) {
+        var token = terminalNode.getSymbol();
+        hash = 31 * hash + token.getType();
+        hash = 31 * hash + token.getTokenIndex();
+      } else if (node instanceof ParserRuleContext ctx) {
+        hash = 31 * hash + ctx.getRuleIndex();
+        hash = 31 * hash + ctx.getChildCount();
+      }
+      for (var i = node.getChildCount() - 1; i >= 0; i--) {
+        stack.push(node.getChild(i));
+      }
+    }
+    return hash;
+  }
+
+  private static boolean supportsVirtualThreads() {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static ExecutorService newExecutor(int threads) {
+    if (supportsVirtualThreads()) {
+      try {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return Executors.newFixedThreadPool(threads);
+  }
+
+  @Value
+  private static class Fingerprint {
+    long treeHash;
+    int syntaxErrors;
+    int tokens;
+  }
+}
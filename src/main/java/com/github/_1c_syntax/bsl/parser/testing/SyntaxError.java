@@ -0,0 +1,49 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import lombok.Value;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+
+import java.util.List;
+
+/**
+ * Первая синтаксическая ошибка, обнаруженная при разборе в режиме быстрого отказа
+ */
+@Value
+public class SyntaxError {
+  /**
+   * Токен, на котором обнаружена ошибка. Может отсутствовать, если исключение его не содержит
+   */
+  Token offendingToken;
+
+  /**
+   * Стек правил на момент ошибки: от текущего правила к корневому
+   */
+  List<String> ruleStack;
+
+  /**
+   * Исключение парсера, описывающее ошибку
+   */
+  RecognitionException exception;
+}
@@ -22,24 +22,34 @@
 package com.github._1c_syntax.bsl.parser.testing;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
+import lombok.Value;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
 import org.antlr.v4.runtime.ConsoleErrorListener;
 import org.antlr.v4.runtime.IncrementalTokenStream;
 import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.UnbufferedCharStream;
 import org.antlr.v4.runtime.UnicodeBOMInputStream;
+import org.antlr.v4.runtime.WritableToken;
+import org.antlr.v4.runtime.misc.Interval;
 import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Класс-враппер для лексера, предоставляющий набор дополнительных методов для удобства тестирования
@@ -55,9 +65,28 @@ public class TestLexer<T extends Lexer> {
   @Getter
   private final Lexer lexer;
 
+  /**
+   * Признак хранения результата {@link #getTokens(int, String)} в компактном виде ({@link CompactTokenList}).
+   * Существенно снижает расход памяти при чтении больших текстов
+   */
+  @Getter
+  @Setter
+  private boolean compactTokens;
+
+  /**
+   * Дисковый кэш результатов анализа. Если задан, {@link #getTokens(int, String)} читает токены
+   * неизменившихся текстов из кэша в компактном виде. По умолчанию {@link ParseResultCache#getDefault()}
+   */
+  @Getter
+  @Setter
+  private ParseResultCache cache = ParseResultCache.getDefault();
+
+  private final Class<T> lexerClass;
+
   @SneakyThrows
   public TestLexer(Class<T> clazz) {
-    this.lexer = createLexer(clazz);
+    this.lexerClass = clazz;
+    this.lexer = createLexer(clazz, CharStreams.fromString(""));
 
     var methods = clazz.getDeclaredMethods();
     var result = Arrays.stream(methods).filter(method -> "getTokenNames".equals(method.getName())).findFirst();
@@ -76,40 +105,281 @@ public class TestLexer<T extends Lexer> {
    * @return Токены в строке
    */
   public List<Token> getTokens(int mode, String inputString) {
+    if (cache != null) {
+      return getCachedTokens(mode, inputString);
+    }
+    if (compactTokens) {
+      return getCompactTokens(mode, inputString);
+    }
     return getTokensStream(mode, inputString).getTokens();
   }
 
   /**
-   * Возвращает токены переданной строки
+   * Возвращает токены переданной строки в компактном виде: объекты токенов не накапливаются,
+   * их атрибуты сохраняются в массивы примитивов
    *
    * @param mode        Режим
    * @param inputString Входная строка
    * @return Токены в строке
    */
-  public IncrementalTokenStream getTokensStream(int mode, String inputString) {
-    CharStream input;
+  public CompactTokenList getCompactTokens(int mode, String inputString) {
+    return lexCompact(mode, prepareInput(inputString));
+  }
 
-    try (
-      var inputStream = IOUtils.toInputStream(inputString, StandardCharsets.UTF_8);
-      var ubis = new UnicodeBOMInputStream(inputStream);
-      var inputStreamReader = new InputStreamReader(ubis, StandardCharsets.UTF_8)
-    ) {
-      ubis.skipBOM();
-      input = CharStreams.fromReader(inputStreamReader);
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+  private CompactTokenList getCachedTokens(int mode, String inputString) {
+    var input = prepareInput(inputString);
+    var key = cache.key(lexer.getClass(), null, mode, -1, inputString);
+    var tokens = cache.loadTokens(key, input);
+    if (tokens == null) {
+      tokens = lexCompact(mode, input);
+      cache.storeTokens(key, tokens);
+    } else if (GrammarCoverage.isEnabled()) {
+      GrammarCoverage.of(lexer).recordTokens(tokens);
     }
+    return tokens;
+  }
 
-    lexer.setInputStream(input);
-    lexer.removeErrorListener(ConsoleErrorListener.INSTANCE);
-    lexer.pushMode(mode);
+  private CompactTokenList lexCompact(int mode, CharStream input) {
+    var probe = PhaseProbe.start(PhaseEvent.LEXING);
+    prepareLexer(mode, input);
+    var tokens = new CompactTokenList(input, Math.max(input.size() / 4, 16));
+    Token token;
+    do {
+      token = lexer.nextToken();
+      tokens.append(token);
+    } while (token.getType() != Token.EOF);
+    tokens.trimToSize();
+    probe.complete(input.size(), tokens.size(), null);
+    if (GrammarCoverage.isEnabled()) {
+      GrammarCoverage.of(lexer).recordTokens(tokens);
+    }
+    return tokens;
+  }
+
+  /**
+   * Возвращает токены переданной строки
+   *
+   * @param mode        Режим
+   * @param inputString Входная строка
+   * @return Токены в строке
+   */
+  public IncrementalTokenStream getTokensStream(int mode, String inputString) {
+    var probe = PhaseProbe.start(PhaseEvent.LEXING);
+    var input = prepareInput(inputString);
+    prepareLexer(mode, input);
 
     var tempTokenStream = new IncrementalTokenStream(lexer);
     tempTokenStream.fill();
+    probe.complete(input.size(), tempTokenStream.size(), null);
+    if (GrammarCoverage.isEnabled()) {
+      GrammarCoverage.of(lexer).recordTokens(tempTokenStream.getTokens());
+    }
 
     return tempTokenStream;
   }
 
+  /**
+   * Профилирует лексический анализ строки в режиме по умолчанию
+   *
+   * @param inputString Входная строка
+   * @return Профиль
+   */
+  public LexerProfile profile(String inputString) {
+    return profile(T.DEFAULT_MODE, List.of(inputString));
+  }
+
+  /**
+   * Профилирует лексический анализ корпуса текстов: считает токены по типам, время по режимам лексера
+   * и промахи DFA, при которых лексер переходил к симуляции ATN. На время замера симулятор лексера
+   * подменяется считающим промахи, после замера возвращается исходный
+   *
+   * @param mode   Режим
+   * @param inputs Тексты
+   * @return Профиль
+   */
+  public LexerProfile profile(int mode, List<String> inputs) {
+    var interpreter = lexer.getInterpreter();
+    if (interpreter == null) {
+      throw new IllegalStateException("Lexer has no ATN: " + lexer.getClass().getName());
+    }
+
+    var simulator = new ProfilingLexerATNSimulator(lexer, interpreter.atn);
+    var profiler = new LexerProfiler();
+    lexer.setInterpreter(simulator);
+    try {
+      for (var inputString : inputs) {
+        var input = prepareInput(inputString);
+        prepareLexer(mode, input);
+        profiler.recordInput(input.size());
+        Token token;
+        do {
+          var tokenMode = lexer._mode;
+          var misses = simulator.getMisses();
+          var start = System.nanoTime();
+          token = lexer.nextToken();
+          profiler.record(tokenMode, token.getType(), System.nanoTime() - start, simulator.getMisses() - misses);
+        } while (token.getType() != Token.EOF);
+      }
+    } finally {
+      lexer.setInterpreter(interpreter);
+    }
+
+    var modeNames = lexer.getModeNames();
+    return profiler.profile(
+      index -> modeNames != null && index < modeNames.length ? modeNames[index] : String.valueOf(index),
+      type -> type == Token.EOF ? "EOF" : tokenName(type));
+  }
+
+  /**
+   * Выполняет лексический анализ строки в режиме по умолчанию параллельно: текст делится на части
+   * по началам строк, каждая часть читается своим лексером, потоки токенов сшиваются с исправлением индексов.
+   * Граница части считается безопасной, если лексер предыдущей части дошел до нее между токенами,
+   * в режиме по умолчанию и с пустым стеком режимов; иначе лексер предыдущей части продолжает чтение
+   * до следующей границы. Результат сверяется с последовательным анализом. Текст разбирается в массив
+   * символов Unicode один раз, все части и последовательный анализ читают его через собственные позиции
+   *
+   * @param inputString Входная строка
+   * @param chunks      Количество частей
+   * @return Сшитые токены и результат сверки
+   */
+  public SplitLexResult lexInParallel(String inputString, int chunks) {
+    var input = prepareInput(inputString);
+    var text = input.size() == 0 ? "" : input.getText(Interval.of(0, input.size() - 1));
+
+    // границы - смещения в символах Unicode, как индексы потока символов
+    var points = new ArrayList<Integer>();
+    var lines = new ArrayList<Integer>();
+    points.add(0);
+    lines.add(1);
+    var line = 1;
+    var lastBoundary = 0;
+    for (var chunk = 1; chunk < chunks; chunk++) {
+      // ближайшее начало строки не раньше равномерной границы
+      var target = (int) ((long) text.length() * chunk / chunks);
+      var newLine = text.indexOf('\n', Math.max(target - 1, lastBoundary));
+      if (newLine < 0 || newLine + 1 >= text.length()) {
+        break;
+      }
+      for (var i = lastBoundary; i <= newLine; i++) {
+        if (text.charAt(i) == '\n') {
+          line++;
+        }
+      }
+      points.add(points.get(points.size() - 1) + text.codePointCount(lastBoundary, newLine + 1));
+      lines.add(line);
+      lastBoundary = newLine + 1;
+    }
+
+    var codePoints = text.codePoints().toArray();
+    var parallelStart = System.nanoTime();
+    var parts = IntStream.range(0, points.size()).parallel()
+      .mapToObj(part -> lexPart(codePoints, points, part, lines.get(part)))
+      .toList();
+
+    var tokens = new ArrayList<Token>();
+    var splitPoints = new ArrayList<Integer>();
+    var unsafeSplitPoints = new ArrayList<Integer>();
+    var part = parts.get(0);
+    while (true) {
+      tokens.addAll(part.getTokens());
+      part.getUnsafePoints().forEach(point -> unsafeSplitPoints.add(points.get(point)));
+      if (part.getEndPoint() >= points.size()) {
+        break;
+      }
+      splitPoints.add(points.get(part.getEndPoint()));
+      part = parts.get(part.getEndPoint());
+    }
+    for (var i = 0; i < tokens.size(); i++) {
+      ((WritableToken) tokens.get(i)).setTokenIndex(i);
+    }
+    var parallelNanos = System.nanoTime() - parallelStart;
+
+    var sequentialStart = System.nanoTime();
+    var sequential = lexPart(codePoints, List.of(0), 0, 1).getTokens();
+    var sequentialNanos = System.nanoTime() - sequentialStart;
+
+    return new SplitLexResult(tokens, splitPoints, unsafeSplitPoints, firstMismatch(tokens, sequential),
+      parallelNanos, sequentialNanos);
+  }
+
+  /**
+   * Читает часть текста отдельным лексером, начиная с ее границы, до первой следующей границы,
+   * на которой состояние лексера позволяет продолжить со следующей части, либо до конца текста
+   */
+  private SplitPart lexPart(int[] codePoints, List<Integer> points, int part, int line) {
+    var input = new CodePointArrayCharStream(codePoints);
+    var partLexer = createLexer(lexerClass, input);
+    partLexer.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    input.seek(points.get(part));
+    partLexer.setLine(line);
+    partLexer.setCharPositionInLine(0);
+
+    var tokens = new ArrayList<Token>();
+    var unsafePoints = new ArrayList<Integer>();
+    var endPoint = part + 1;
+    while (true) {
+      var index = input.index();
+      while (endPoint < points.size() && index > points.get(endPoint)) {
+        unsafePoints.add(endPoint);
+        endPoint++;
+      }
+      if (endPoint < points.size() && index == points.get(endPoint)) {
+        if (partLexer._mode == Lexer.DEFAULT_MODE && partLexer._modeStack.isEmpty()) {
+          return new SplitPart(tokens, unsafePoints, endPoint);
+        }
+        unsafePoints.add(endPoint);
+        endPoint++;
+      }
+
+      var token = partLexer.nextToken();
+      tokens.add(token);
+      if (token.getType() == Token.EOF) {
+        return new SplitPart(tokens, unsafePoints, points.size());
+      }
+    }
+  }
+
+  private static int firstMismatch(List<Token> tokens, List<Token> expected) {
+    var size = Math.min(tokens.size(), expected.size());
+    for (var i = 0; i < size; i++) {
+      var token = tokens.get(i);
+      var expectedToken = expected.get(i);
+      if (token.getType() != expectedToken.getType()
+        || token.getChannel() != expectedToken.getChannel()
+        || token.getStartIndex() != expectedToken.getStartIndex()
+        || token.getStopIndex() != expectedToken.getStopIndex()
+        || token.getLine() != expectedToken.getLine()
+        || token.getCharPositionInLine() != expectedToken.getCharPositionInLine()) {
+        return i;
+      }
+    }
+    return tokens.size() == expected.size() ? -1 : size;
+  }
+
+  /**
+   * Создает отдельный лексер, читающий текст из потока без буферизации всего текста.
+   * Текст токенов копируется при их создании, так как прочитанные символы не сохраняются
+   *
+   * @param reader Поток текста
+   * @return Лексер
+   */
+  public T streamingLexer(Reader reader) {
+    var pushbackReader = new PushbackReader(reader, 1);
+    try {
+      var first = pushbackReader.read();
+      if (first >= 0 && first != '\uFEFF') {
+        pushbackReader.unread(first);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+
+    var streamingLexer = createLexer(lexerClass, new UnbufferedCharStream(pushbackReader));
+    streamingLexer.setTokenFactory(new CommonTokenFactory(true));
+    streamingLexer.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    return streamingLexer;
+  }
+
   /**
    * Формирует строку с именами токенов на основании переданного массива их идентификаторов
    *
@@ -178,12 +448,74 @@ public class TestLexer<T extends Lexer> {
     return new LexerAsserts(this, inputString, T.DEFAULT_MODE, channel);
   }
 
-  private T createLexer(Class<T> lexerClass) {
+  /**
+   * Настраивает и запоминает тестируемый контекст по имени фикстуры
+   *
+   * @param sourcePath Имя файла-фикстуры (ресурса)
+   * @return служебный класс для замыкания
+   */
+  public LexerAsserts assertThatFile(String sourcePath) {
+    return FixtureContext.with(sourcePath, () -> assertThat(ResourceUtils.byName(sourcePath)));
+  }
+
+  /**
+   * Настраивает и запоминает тестируемый контекст по фикстуре, полученной из {@link BslFixtures}
+   *
+   * @param fixture Фикстура
+   * @return служебный класс для замыкания
+   */
+  public LexerAsserts assertThat(Fixture fixture) {
+    return FixtureContext.with(fixture.getName(), () -> assertThat(fixture.content()));
+  }
+
+  private static CharStream prepareInput(String inputString) {
+    CharStream input;
+
+    try (
+      var inputStream = IOUtils.toInputStream(inputString, StandardCharsets.UTF_8);
+      var ubis = new UnicodeBOMInputStream(inputStream);
+      var inputStreamReader = new InputStreamReader(ubis, StandardCharsets.UTF_8)
+    ) {
+      ubis.skipBOM();
+      input = CharStreams.fromReader(inputStreamReader);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return input;
+  }
+
+  private void prepareLexer(int mode, CharStream input) {
+    lexer.setInputStream(input);
+    lexer.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    lexer.pushMode(mode);
+  }
+
+  /**
+   * Создает отдельный экземпляр лексера, не связанный с {@link #getLexer()}
+   *
+   * @param input Поток символов
+   * @return Лексер
+   */
+  T createLexer(CharStream input) {
+    return createLexer(lexerClass, input);
+  }
+
+  private T createLexer(Class<T> lexerClass, CharStream input) {
     try {
       return lexerClass.getDeclaredConstructor(CharStream.class)
-        .newInstance(CharStreams.fromString(""));
+        .newInstance(input);
     } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
       throw new RuntimeException(e);
     }
   }
+
+  /**
+   * Токены части текста и номер границы, на которой лексер части остановился
+   */
+  @Value
+  private static class SplitPart {
+    List<Token> tokens;
+    List<Integer> unsafePoints;
+    int endPoint;
+  }
 }
@@ -23,22 +23,55 @@ package com.github._1c_syntax.bsl.parser.testing;
 
 import lombok.Getter;
 import lombok.SneakyThrows;
-import lombok.experimental.Accessors;
+import lombok.Value;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.ConsoleErrorListener;
 import org.antlr.v4.runtime.IncrementalParser;
 import org.antlr.v4.runtime.IncrementalTokenStream;
 import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.pattern.ParseTreePattern;
+import org.antlr.v4.runtime.tree.pattern.ParseTreePatternMatcher;
+import org.antlr.v4.runtime.tree.xpath.XPath;
 
+import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class TestParser<PARSER extends Parser, LEXER extends Lexer> {
+  /**
+   * Системное свойство с допустимым объемом кэша деревьев разбора в байтах, 0 отключает кэш
+   */
+  public static final String TREE_CACHE_PROPERTY = "bsl.parser.testing.treeCache";
+
+  /**
+   * Объем кэша деревьев разбора по умолчанию: кэш выключен
+   */
+  public static final long DEFAULT_TREE_CACHE_SIZE = 0;
 
   private final List<String> ruleNames;
 
+  /**
+   * Методы чтения рулов, индекс в списке совпадает с идентификатором рула
+   */
+  private final List<Method> ruleMethods;
+
+  private final Map<String, Integer> ruleIndexes;
+
   @Getter
   private final TestLexer<LEXER> lexer;
 
@@ -48,12 +81,37 @@ public class TestParser<PARSER extends Parser, LEXER extends Lexer> {
   @Getter
   private final Class<LEXER> lexerClazz;
 
-  @Getter
-  @Accessors(fluent = true)
   private PARSER parser;
 
+  /**
+   * Создатель парсера последней проверки, если ее разбор отложен кэшем результатов
+   */
+  private Supplier<PARSER> pendingParser;
+
   private final boolean supportRebuild;
 
+  /**
+   * Допустимый объем кэша деревьев разбора и потоков токенов в байтах (по оценке), по умолчанию 0.
+   * Повторные проверки одного и того же текста тем же стартовым рулом используют однажды построенное дерево.
+   * Кэш принадлежит экземпляру, поэтому при параллельных тестах объем умножается на количество экземпляров
+   */
+  @Getter
+  private long treeCacheSize;
+
+  private ParseTreeCache treeCache;
+
+  /**
+   * Скомпилированные выражения XPath. Выражение удерживает парсер, которым скомпилировано,
+   * поэтому компилируется парсером над пустым потоком токенов
+   */
+  private final Map<String, XPath> xpaths = new ConcurrentHashMap<>();
+
+  /**
+   * Деревья скомпилированных шаблонов. Сопоставитель шаблонов удерживает парсер и лексер,
+   * поэтому в кэше хранится только дерево шаблона
+   */
+  private final Map<PatternKey, ParseTree> patterns = new ConcurrentHashMap<>();
+
   @SneakyThrows
   public TestParser(Class<PARSER> parserClazz, Class<LEXER> lexerClazz) {
     this.lexer = new TestLexer<>(lexerClazz);
@@ -69,7 +127,38 @@ public class TestParser<PARSER extends Parser, LEXER extends Lexer> {
       ruleNames = Collections.emptyList();
     }
 
+    var methods = Arrays.stream(parserClazz.getDeclaredMethods())
+      .filter(method -> method.getParameterCount() == 0)
+      .collect(Collectors.toMap(Method::getName, Function.identity(), (first, second) -> first));
+    this.ruleMethods = ruleNames.stream().map(methods::get).toList();
+    this.ruleIndexes = ruleNames.stream().collect(Collectors.toMap(Function.identity(), ruleNames::indexOf));
+
     this.supportRebuild = IncrementalParser.class.isAssignableFrom(parserClazz);
+    setTreeCacheSize(Long.getLong(TREE_CACHE_PROPERTY, DEFAULT_TREE_CACHE_SIZE));
+  }
+
+  /**
+   * Устанавливает допустимый объем кэша деревьев разбора, очищая кэш
+   *
+   * @param treeCacheSize Объем в байтах, 0 отключает кэш
+   */
+  public void setTreeCacheSize(long treeCacheSize) {
+    this.treeCacheSize = treeCacheSize;
+    this.treeCache = treeCacheSize > 0 ? new ParseTreeCache(treeCacheSize) : null;
+  }
+
+  /**
+   * Возвращает парсер последней настроенной проверки. Если разбор отложен кэшем результатов,
+   * парсер создается при первом обращении, и проверка использует тот же экземпляр
+   *
+   * @return Парсер
+   */
+  public PARSER parser() {
+    if (pendingParser != null) {
+      parser = pendingParser.get();
+      pendingParser = null;
+    }
+    return parser;
   }
 
   /**
@@ -86,6 +175,57 @@ public class TestParser<PARSER extends Parser, LEXER extends Lexer> {
     }
   }
 
+  /**
+   * Возвращает идентификатор рула по его имени
+   *
+   * @param name Имя рула
+   * @return Идентификатор рула
+   */
+  public int ruleIndex(String name) {
+    var index = ruleIndexes.get(name);
+    if (index == null) {
+      throw new IllegalArgumentException("Unknown rule: " + name);
+    }
+    return index;
+  }
+
+  /**
+   * Проверяет наличие рула с указанным именем
+   *
+   * @param name Имя рула
+   * @return Признак наличия рула
+   */
+  boolean hasRuleName(String name) {
+    return ruleIndexes.containsKey(name);
+  }
+
+  /**
+   * Возвращает скомпилированное выражение XPath, компилируя его при первом обращении
+   *
+   * @param path Выражение XPath
+   * @return Скомпилированное выражение
+   */
+  XPath compileXPath(String path) {
+    return xpaths.computeIfAbsent(path, key -> new XPath(
+      newParser(new IncrementalTokenStream(getLexer().createLexer(CharStreams.fromString("")))), key));
+  }
+
+  /**
+   * Возвращает скомпилированный шаблон дерева. Дерево шаблона компилируется при первом обращении,
+   * сопоставитель с отдельным лексером для разбора шаблона создается на каждый вызов
+   *
+   * @param parser  Парсер, рулы которого используются в шаблоне
+   * @param pattern Шаблон
+   * @param ruleId  Идентификатор рула шаблона
+   * @return Скомпилированный шаблон
+   */
+  ParseTreePattern compilePattern(Parser parser, String pattern, int ruleId) {
+    var matcher = new ParseTreePatternMatcher(getLexer().createLexer(CharStreams.fromString("")), parser);
+    var patternTree = patterns.computeIfAbsent(new PatternKey(pattern, ruleId),
+      key -> matcher.compile(pattern, ruleId).getPatternTree());
+    return new ParseTreePattern(matcher, pattern, ruleId, patternTree);
+  }
+
   /**
    * Настраивает и запоминает тестируемый контекст. Использует дефолтные значения mode и channel
    *
@@ -93,8 +233,7 @@ public class TestParser<PARSER extends Parser, LEXER extends Lexer> {
    * @return служебный класс для замыкания
    */
   public ParserAsserts assertThat(String inputString) {
-    parser = createParser(LEXER.DEFAULT_MODE, inputString);
-    return new ParserAsserts(this, parser);
+    return createAsserts(LEXER.DEFAULT_MODE, inputString, 0);
   }
 
   /**
@@ -105,8 +244,7 @@ public class TestParser<PARSER extends Parser, LEXER extends Lexer> {
    * @return служебный класс для замыкания
    */
   public ParserAsserts assertThat(int mode, String inputString) {
-    parser = createParser(mode, inputString);
-    return new ParserAsserts(this, parser);
+    return createAsserts(mode, inputString, 0);
   }
 
   /**
@@ -116,12 +254,312 @@ public class TestParser<PARSER extends Parser, LEXER extends Lexer> {
    * @return служебный класс для замыкания
    */
   public ParserAsserts assertThatFile(String sourcePath) {
-    parser = createParser(LEXER.DEFAULT_MODE, ResourceUtils.byName(sourcePath));
+    return FixtureContext.with(sourcePath,
+      () -> createAsserts(LEXER.DEFAULT_MODE, ResourceUtils.byName(sourcePath), 0));
+  }
+
+  /**
+   * Настраивает и запоминает тестируемый контекст по фикстуре, полученной из {@link BslFixtures}
+   *
+   * @param fixture Фикстура
+   * @return служебный класс для замыкания
+   */
+  public ParserAsserts assertThat(Fixture fixture) {
+    return FixtureContext.with(fixture.getName(),
+      () -> createAsserts(LEXER.DEFAULT_MODE, fixture.content(), 0));
+  }
+
+  /**
+   * Измеряет стоимость разбора фикстуры стартовым рулом в стабильных единицах: количестве токенов
+   * и операций предсказания парсера. Разбор выполняется отдельным экземпляром парсера с профилированием
+   *
+   * @param sourcePath Имя файла-фикстуры (ресурса)
+   * @return Стоимость разбора
+   */
+  public ParseCost measureCost(String sourcePath) {
+    return FixtureContext.with(sourcePath, () -> {
+      var tokenStream = getLexer().getTokensStream(LEXER.DEFAULT_MODE, ResourceUtils.byName(sourcePath));
+      var profilingParser = createParser(tokenStream);
+      profilingParser.setProfile(true);
+      parseRule(profilingParser, 0);
+
+      long decisions = 0;
+      long lookahead = 0;
+      long fullContextFallbacks = 0;
+      for (DecisionInfo decisionInfo : profilingParser.getParseInfo().getDecisionInfo()) {
+        decisions += decisionInfo.invocations;
+        lookahead += decisionInfo.SLL_TotalLook + decisionInfo.LL_TotalLook;
+        fullContextFallbacks += decisionInfo.LL_Fallback;
+      }
+      return new ParseCost(tokenStream.size(), decisions, lookahead, fullContextFallbacks);
+    });
+  }
+
+  /**
+   * Профилирует разбор фикстур стартовым рулом по рулам: для каждого вызова рула замеряются полное
+   * и собственное время, выделенная потоком память и количество прочитанных токенов.
+   * Разбор выполняется отдельными экземплярами парсера, лексический анализ в замер не входит
+   *
+   * @param sourcePaths Имена файлов-фикстур (ресурсов)
+   * @return Профиль по фикстурам и по корпусу
+   */
+  public RuleProfile profileRules(List<String> sourcePaths) {
+    var fixtures = new LinkedHashMap<String, List<RuleProfile.RuleTiming>>();
+    for (var sourcePath : sourcePaths) {
+      fixtures.put(sourcePath, FixtureContext.with(sourcePath, () -> {
+        var tokenStream = getLexer().getTokensStream(LEXER.DEFAULT_MODE, ResourceUtils.byName(sourcePath));
+        var profilingParser = createParser(tokenStream);
+        var profiler = new RuleProfiler(profilingParser.getRuleNames().length);
+        profilingParser.addParseListener(profiler);
+        parseRule(profilingParser, 0);
+        return profiler.timings(this::ruleName);
+      }));
+    }
+    return RuleProfile.of(fixtures);
+  }
+
+  /**
+   * Выполняет нагрузочный прогон: разбирает корпус текстов стартовым рулом в одном потоке,
+   * затем для каждого заданного количества потоков (виртуальных, если их поддерживает JVM),
+   * каждый со своим экземпляром парсера. Результаты разбора сверяются с однопоточными
+   *
+   * @param corpus       Тексты для разбора
+   * @param threadCounts Количества одновременно работающих потоков
+   * @return Отчет о совпадении результатов и пропускной способности
+   */
+  public StressReport stress(List<String> corpus, int... threadCounts) {
+    return new StressRunner<>(parserClazz, lexerClazz, corpus).run(threadCounts);
+  }
+
+  /**
+   * Настраивает и запоминает тестируемый контекст, разбирая строку непосредственно указанным рулом.
+   * Позволяет проверять фрагменты (выражения, отдельные операторы) без обрамления до полного модуля
+   *
+   * @param ruleId      Идентификатор стартового рула
+   * @param inputString анализируемая строка
+   * @return служебный класс для замыкания
+   */
+  public ParserAsserts assertThatRule(int ruleId, String inputString) {
+    return createAsserts(LEXER.DEFAULT_MODE, inputString, ruleId);
+  }
+
+  /**
+   * Настраивает и запоминает тестируемый контекст, разбирая строку непосредственно указанным рулом.
+   * Позволяет проверять фрагменты (выражения, отдельные операторы) без обрамления до полного модуля
+   *
+   * @param ruleName    Имя стартового рула
+   * @param inputString анализируемая строка
+   * @return служебный класс для замыкания
+   */
+  public ParserAsserts assertThatRule(String ruleName, String inputString) {
+    return assertThatRule(ruleIndex(ruleName), inputString);
+  }
+
+  /**
+   * Настраивает и запоминает тестируемый контекст на уже прочитанном потоке токенов.
+   * Поток можно получить один раз через {@link TestLexer#getTokensStream(int, String)} и передать
+   * в несколько проверок, в том числе разных парсеров, без повторного лексического анализа
+   *
+   * @param tokenStream поток токенов анализируемой строки
+   * @return служебный класс для замыкания
+   */
+  public ParserAsserts assertThat(IncrementalTokenStream tokenStream) {
+    pendingParser = null;
+    parser = createParser(tokenStream);
     return new ParserAsserts(this, parser);
   }
 
-  private PARSER createParser(int mode, String inputString) {
-    var tokenStream = getLexer().getTokensStream(mode, inputString);
+  /**
+   * Выполняет потоковый разбор текста стартовым рулом, см. {@link #assertThatStream(int, Reader, ParseTreeListener...)}
+   *
+   * @param reader    Поток текста
+   * @param listeners Слушатели разбора
+   * @return служебный класс для замыкания
+   */
+  public StreamingAsserts assertThatStream(Reader reader, ParseTreeListener... listeners) {
+    return assertThatStream(0, reader, listeners);
+  }
+
+  /**
+   * Выполняет потоковый разбор текста указанным рулом: символы и токены читаются без буферизации всего текста,
+   * дерево не строится, о ходе разбора сообщается только слушателям. Подходит для проверки огромных текстов,
+   * когда нужен лишь вердикт. Требует у парсера конструктора с {@link TokenStream}. Инкрементальные парсеры
+   * ({@link IncrementalParser}) не поддерживаются: их поток {@link IncrementalTokenStream} хранит все токены текста
+   *
+   * @param ruleId    Идентификатор стартового рула
+   * @param reader    Поток текста
+   * @param listeners Слушатели разбора
+   * @return служебный класс для замыкания
+   * @throws UnsupportedOperationException если парсер инкрементальный или не имеет конструктора с {@link TokenStream}
+   */
+  public StreamingAsserts assertThatStream(int ruleId, Reader reader, ParseTreeListener... listeners) {
+    if (supportRebuild) {
+      throw new UnsupportedOperationException("Streaming is not supported by incremental parser: "
+        + parserClazz.getName());
+    }
+
+    var tokenStream = new BufferTrackingTokenStream(getLexer().streamingLexer(reader));
+    PARSER streamingParser;
+    try {
+      streamingParser = parserClazz.getDeclaredConstructor(TokenStream.class).newInstance(tokenStream);
+    } catch (NoSuchMethodException e) {
+      throw new UnsupportedOperationException("Streaming requires a TokenStream constructor: " + parserClazz.getName(),
+        e);
+    } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+      throw new RuntimeException(e);
+    }
+
+    streamingParser.setBuildParseTree(false);
+    streamingParser.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    for (var listener : listeners) {
+      streamingParser.addParseListener(listener);
+    }
+    return new StreamingAsserts(this, streamingParser, tokenStream, ruleId);
+  }
+
+  /**
+   * Проверяет наличие в парсере метода чтения рула
+   *
+   * @param ruleId Идентификатор рула
+   * @return Признак наличия метода
+   */
+  boolean hasRule(int ruleId) {
+    return ruleId >= 0 && ruleId < ruleMethods.size() && ruleMethods.get(ruleId) != null;
+  }
+
+  /**
+   * Выполняет разбор входного потока парсера, начиная с указанного правила
+   *
+   * @param parser Парсер
+   * @param ruleId Идентификатор рула
+   * @return Прочитанный узел
+   */
+  ParserRuleContext parseRule(Parser parser, int ruleId) {
+    if (!hasRule(ruleId)) {
+      throw new IllegalArgumentException("Unknown rule: " + ruleName(ruleId));
+    }
+
+    var method = ruleMethods.get(ruleId);
+    try {
+      return (ParserRuleContext) method.invoke(parser);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Возвращает размер текста, из которого прочитан поток токенов
+   *
+   * @param tokenStream Поток токенов
+   * @return Размер текста в символах
+   */
+  static int inputSize(TokenStream tokenStream) {
+    var tokenSource = tokenStream.getTokenSource();
+    if (tokenSource == null || tokenSource.getInputStream() == null) {
+      return 0;
+    }
+    return tokenSource.getInputStream().size();
+  }
+
+  /**
+   * Создает утверждения для строки. Дерево, построенное ранее для того же текста, режима и стартового рула,
+   * берется из кэша деревьев. При включенном кэше результатов ({@link TestLexer#getCache()})
+   * разбор строки с сохраненным успешным результатом откладывается до проверки, которой он нужен
+   */
+  private ParserAsserts createAsserts(int mode, String inputString, int ruleId) {
+    pendingParser = null;
+    if (treeCache != null) {
+      var tree = treeCache.getTree(mode, inputString, ruleId);
+      if (tree != null) {
+        // новый парсер над теми же токенами: парсер, построивший дерево, уже прочитал поток
+        parser = createParser(tree.getTokens());
+        return new ParserAsserts(this, parser, ruleId, tree.getAst());
+      }
+    }
+
+    var cache = getLexer().getCache();
+    if (cache == null) {
+      if (treeCache == null) {
+        parser = createParser(mode, inputString);
+        return new ParserAsserts(this, parser, ruleId);
+      }
+      var tokenStream = cachedTokens(mode, inputString);
+      var cachedParser = createParser(tokenStream);
+      parser = cachedParser;
+      var currentTreeCache = treeCache;
+      return new ParserAsserts(this, () -> cachedParser, ruleId, null, null,
+        ast -> currentTreeCache.putTree(mode, inputString, ruleId, tokenStream, ast, ParserAsserts.countNodes(ast)));
+    }
+
+    var key = cache.key(lexerClazz, parserClazz, mode, ruleId, inputString);
+    var fixture = FixtureContext.current();
+    var pending = memoize(() -> FixtureContext.with(fixture, () -> createCachedParser(mode, inputString)));
+    parser = null;
+    pendingParser = pending;
+    return new ParserAsserts(this, pending, ruleId, cache, key, null);
+  }
+
+  private static <T> Supplier<T> memoize(Supplier<T> supplier) {
+    return new Supplier<>() {
+      private T value;
+
+      @Override
+      public T get() {
+        if (value == null) {
+          value = supplier.get();
+        }
+        return value;
+      }
+    };
+  }
+
+  private PARSER createCachedParser(int mode, String inputString) {
+    if (treeCache == null) {
+      return createParser(mode, inputString);
+    }
+    return createParser(cachedTokens(mode, inputString));
+  }
+
+  private IncrementalTokenStream cachedTokens(int mode, String inputString) {
+    var tokenStream = treeCache.getTokens(mode, inputString);
+    if (tokenStream == null) {
+      tokenStream = getLexer().getTokensStream(mode, inputString);
+      treeCache.putTokens(mode, inputString, tokenStream);
+    }
+    return tokenStream;
+  }
+
+  PARSER createParser(int mode, String inputString) {
+    return createParser(getLexer().getTokensStream(mode, inputString));
+  }
+
+  private PARSER createParser(IncrementalTokenStream tokenStream) {
+    if (tokenStream.index() > 0) {
+      // поток уже читался другим парсером
+      tokenStream.seek(0);
+    }
+
+    var probe = PhaseProbe.start(PhaseEvent.PARSER_CREATION);
+    var result = newParser(tokenStream);
+    probe.complete(inputSize(tokenStream), tokenStream.size(), null);
+    if (GrammarCoverage.isEnabled()) {
+      GrammarCoverage.of(result).instrument(result);
+    }
+    return result;
+  }
+
+  /**
+   * Создает экземпляр парсера над потоком токенов без замеров и инструментирования
+   *
+   * @param tokenStream Поток токенов
+   * @return Парсер
+   */
+  PARSER newParser(IncrementalTokenStream tokenStream) {
     try {
       if (supportRebuild) {
         return parserClazz.getDeclaredConstructor(IncrementalTokenStream.class)
@@ -134,4 +572,10 @@ public class TestParser<PARSER extends Parser, LEXER extends Lexer> {
       throw new RuntimeException(e);
     }
   }
+
+  @Value
+  private static class PatternKey {
+    String pattern;
+    int ruleId;
+  }
 }
@@ -0,0 +1,93 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactTokenListTest {
+
+  @Test
+  void testStorage() {
+    var tokens = new CompactTokenList(CharStreams.fromString("ab\ncd"), 1);
+    tokens.append(token(1, 0, 0, 1, 1, 0));
+    tokens.append(token(2, 1, 2, 2, 1, 2));
+    tokens.append(token(3, 0, 3, 4, 2, 0));
+    tokens.append(token(Token.EOF, 0, 5, 4, 2, 2));
+    tokens.trimToSize();
+
+    assertThat(tokens).hasSize(4);
+    assertThat(tokens.type(0)).isEqualTo(1);
+    assertThat(tokens.channel(1)).isEqualTo(1);
+    assertThat(tokens.startIndex(2)).isEqualTo(3);
+    assertThat(tokens.stopIndex(2)).isEqualTo(4);
+    assertThat(tokens.line(2)).isEqualTo(2);
+    assertThat(tokens.column(1)).isEqualTo(2);
+    assertThat(tokens.text(0)).isEqualTo("ab");
+    assertThat(tokens.text(3)).isEqualTo("<EOF>");
+
+    var token = tokens.get(2);
+    assertThat(token.getText()).isEqualTo("cd");
+    assertThat(token.getType()).isEqualTo(3);
+    assertThat(token.getLine()).isEqualTo(2);
+    assertThat(token.getCharPositionInLine()).isZero();
+    assertThat(token.getTokenIndex()).isEqualTo(2);
+    assertThat(token.getTokenSource()).isNull();
+    assertThat(token.getInputStream()).isNotNull();
+
+    assertThat(tokens.stream().map(Token::getType)).containsExactly(1, 2, 3, Token.EOF);
+    assertThrows(IndexOutOfBoundsException.class, () -> tokens.get(4));
+    assertThrows(IndexOutOfBoundsException.class, () -> tokens.type(-1));
+  }
+
+  @Test
+  void testExplicitText() {
+    var tokens = new CompactTokenList(CharStreams.fromString("'ab' cd"));
+    var quoted = (CommonToken) token(1, 0, 0, 3, 1, 0);
+    quoted.setText("ab");
+    tokens.append(quoted);
+    var plain = new CommonToken(2, "cd");
+    plain.setStartIndex(5);
+    plain.setStopIndex(6);
+    tokens.append(plain);
+
+    assertThat(tokens.text(0)).isEqualTo("ab");
+    assertThat(tokens.get(0).getText()).isEqualTo("ab");
+    assertThat(tokens.text(1)).isEqualTo("cd");
+    assertThat(tokens.explicitTexts()).containsOnlyKeys(0);
+  }
+
+  private static Token token(int type, int channel, int start, int stop, int line, int column) {
+    var token = new CommonToken(type);
+    token.setChannel(channel);
+    token.setStartIndex(start);
+    token.setStopIndex(stop);
+    token.setLine(line);
+    token.setCharPositionInLine(column);
+    return token;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixtureShardsTest {
+
+  @Test
+  void testSplit() {
+    var shards = FixtureShards.split(List.of(10L, 7L, 5L, 4L, 3L, 1L), 2, Long::longValue);
+    assertThat(shards).containsExactly(List.of(10L, 4L, 1L), List.of(7L, 5L, 3L));
+
+    assertThat(FixtureShards.split(List.of(1L), 3, Long::longValue))
+      .containsExactly(List.of(1L), List.of(), List.of());
+    assertThrows(IllegalArgumentException.class, () -> FixtureShards.split(List.of(1L), 0, Long::longValue));
+  }
+
+  @Test
+  void testShard(@TempDir Path tempDir) throws IOException {
+    var folder = Files.createDirectory(tempDir.resolve("fixtures"));
+    Files.writeString(folder.resolve("big.bsl"), "x".repeat(1000), StandardCharsets.UTF_8);
+    Files.writeString(folder.resolve("small.bsl"), "x".repeat(10), StandardCharsets.UTF_8);
+    Files.writeString(folder.resolve("slow.bsl"), "x".repeat(10), StandardCharsets.UTF_8);
+
+    var prefix = folder.toString().replace('\\', '/') + "/";
+    var costsPath = tempDir.resolve("costs.properties");
+    var recorded = FixtureCosts.open(tempDir.resolve("empty.properties"), costsPath);
+    recorded.record(prefix + "slow.bsl", 5000);
+    recorded.record(prefix + "small.bsl", 10);
+    recorded.save();
+
+    List<Fixture> fixtures;
+    try (var stream = ResourceUtils.fixtures(folder.toString())) {
+      fixtures = stream.sorted((first, second) -> first.getName().compareTo(second.getName())).toList();
+    }
+
+    var costs = FixtureCosts.open(costsPath);
+    assertThat(costs.cost(prefix + "slow.bsl")).isEqualTo(5000L);
+    assertThat(costs.cost(prefix + "big.bsl")).isNull();
+
+    // big.bsl оценивается по стоимости байта остальных: 5010 / 20 * 1000
+    assertThat(FixtureShards.shard(fixtures, 0, 2, costs)).extracting(Fixture::getName)
+      .containsExactly(prefix + "big.bsl");
+    assertThat(FixtureShards.shard(fixtures, 1, 2, costs)).extracting(Fixture::getName)
+      .containsExactly(prefix + "small.bsl", prefix + "slow.bsl");
+    assertThrows(IllegalArgumentException.class, () -> FixtureShards.shard(fixtures, 2, 2, costs));
+  }
+
+  @Test
+  void testCostsMerge(@TempDir Path tempDir) throws IOException {
+    var path = tempDir.resolve("costs.properties");
+    var history = "other\\ fixture=42\nfixture=1\nforked=7\n";
+    Files.writeString(path, history, StandardCharsets.UTF_8);
+    var recordPath = tempDir.resolve("recorded.properties");
+    Files.writeString(recordPath, "forked=300\n", StandardCharsets.UTF_8);
+
+    var costs = FixtureCosts.open(path, recordPath);
+    costs.record("fixture", 100);
+    costs.record("fixture", 20);
+    costs.save();
+
+    // история не меняется, снимок для разбиения один на весь прогон
+    assertThat(Files.readString(path, StandardCharsets.UTF_8)).isEqualTo(history);
+    assertThat(costs.cost("fixture")).isEqualTo(1L);
+
+    var reloaded = FixtureCosts.open(recordPath);
+    assertThat(reloaded.cost("fixture")).isEqualTo(120L);
+    assertThat(reloaded.cost("forked")).isEqualTo(300L);
+    assertThat(reloaded.cost("other fixture")).isEqualTo(42L);
+
+    assertThrows(IllegalStateException.class, () -> FixtureCosts.open(path).save());
+    assertThrows(IllegalArgumentException.class, () -> FixtureCosts.open(path, path));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoDecisionParser;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoParser;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.IncrementalTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarCoverageTest {
+
+  @AfterEach
+  void tearDown() {
+    GrammarCoverage.reset();
+  }
+
+  @Test
+  void testRules() {
+    var parser = new DemoParser(new IncrementalTokenStream(new DemoLexer(CharStreams.fromString(""))));
+    var coverage = GrammarCoverage.of(parser);
+    assertThat(GrammarCoverage.of(parser)).isSameAs(coverage);
+
+    coverage.recordRule(0);
+    coverage.recordRule(2);
+    coverage.recordRule(2);
+    coverage.recordRule(7);
+    coverage.recordAlternative(0, 1);
+
+    var report = coverage.report();
+    assertThat(report.getGrammar()).isEqualTo(DemoParser.class.getName());
+    assertThat(report.getRules()).isEqualTo(3);
+    assertThat(report.getCoveredRules()).isEqualTo(2);
+    assertThat(report.getUncoveredRules()).containsExactly("rule2");
+    assertThat(report.getAlternatives()).isZero();
+    assertThat(report.getTokens()).isZero();
+
+    coverage.instrument(parser);
+    assertThat(parser.getParseListeners()).hasSize(1);
+  }
+
+  @Test
+  void testLL1Alternatives() {
+    var parser = new DemoDecisionParser(new IncrementalTokenStream(new DemoSplitLexer(CharStreams.fromString("\"a\""))));
+    var coverage = GrammarCoverage.of(parser);
+    coverage.instrument(parser);
+    assertThat(parser.getErrorHandler()).isInstanceOf(CoverageErrorStrategy.class);
+    assertThat(coverage.report().getAlternatives()).isEqualTo(2);
+
+    // сгенерированный код перед switch по LA(1)
+    parser.setState(DemoDecisionParser.DECISION_STATE);
+    parser.getErrorHandler().sync(parser);
+
+    var report = coverage.report();
+    assertThat(report.getCoveredAlternatives()).isEqualTo(1);
+    assertThat(report.getUncoveredAlternatives()).containsExactly("choice decision 0 alt 1");
+
+    coverage.recordAlternative(0, 1);
+    assertThat(coverage.report().getCoveredAlternatives()).isEqualTo(2);
+  }
+
+  @Test
+  void testTokens(@TempDir Path tempDir) throws IOException {
+    var coverage = GrammarCoverage.of(new DemoLexer(CharStreams.fromString("")));
+    coverage.recordTokens(List.of(new CommonToken(1, "a"), new CommonToken(1, "b"), new CommonToken(Token.EOF, "")));
+
+    var report = coverage.report();
+    assertThat(report.getCoveredTokens()).isEqualTo(1);
+    assertThat(report.getUncoveredTokens()).hasSize(report.getTokens() - 1);
+
+    var path = tempDir.resolve("coverage.json");
+    GrammarCoverage.writeReport(path);
+    assertThat(GrammarCoverage.reports()).hasSize(1);
+    assertThat(Files.readString(path, StandardCharsets.UTF_8))
+      .contains("\"grammar\": \"" + DemoLexer.class.getName() + "\"")
+      .contains("\"coveredTokens\": 1");
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoParser;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarUnderTestExtensionTest {
+
+  @Test
+  void testParserInjection(
+    @GrammarUnderTest(parser = DemoParser.class, lexer = DemoLexer.class) TestParser<DemoParser, DemoLexer> first,
+    @GrammarUnderTest(parser = DemoParser.class, lexer = DemoLexer.class) TestParser<DemoParser, DemoLexer> second
+  ) {
+    assertThat(first).isNotNull().isSameAs(second);
+    assertThat(first.getParserClazz()).isEqualTo(DemoParser.class);
+    assertThat(first.getLexerClazz()).isEqualTo(DemoLexer.class);
+  }
+
+  @Test
+  void testLexerInjection(@GrammarUnderTest(lexer = DemoLexer.class) TestLexer<DemoLexer> first,
+                          @GrammarUnderTest(lexer = DemoLexer.class) TestLexer<DemoLexer> second) {
+    assertThat(first).isNotNull().isSameAs(second);
+    assertThat(first.getLexer()).isInstanceOf(DemoLexer.class);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoWordParser;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InputGeneratorTest {
+
+  @Test
+  void testSeed() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    var generator = new InputGenerator(testParser).withSeed(42).withBreadth(1).withTargetSize(200);
+
+    var text = generator.generate();
+    assertThat(text).isNotEmpty().endsWith("\n");
+    assertThat(generator.generate()).isEqualTo(text);
+    assertThat(new InputGenerator(testParser).withSeed(42).withBreadth(1).withTargetSize(200).generate())
+      .isEqualTo(text);
+    assertThat(generator.generate(DemoWordParser.RULE_word)).matches("[a-z]+|\"[a-z]*\"");
+  }
+
+  @Test
+  void testTargetSize() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    var generator = new InputGenerator(testParser).withSeed(1).withBreadth(1);
+
+    assertThat(generator.withTargetSize(500).generate()).hasSizeBetween(500, 532);
+    assertThat(generator.withTargetSize(5_000).generate()).hasSizeBetween(5_000, 5_032);
+    assertThat(generator.withBreadth(0).generate()).isEmpty();
+  }
+
+  @Test
+  void testGenerateMatching() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    var input = testParser.getLexer().getLexer().getInputStream();
+    var generator = new InputGenerator(testParser).withSeed(7).withTargetSize(1_000);
+
+    var text = generator.generateMatching(DemoWordParser.RULE_file, 10);
+    assertThat(testParser.parser()).isNull();
+    assertThat(testParser.getLexer().getLexer().getInputStream()).isSameAs(input);
+
+    testParser.assertThatRule(DemoWordParser.RULE_file, text).matches();
+  }
+
+  @Test
+  void testGenerateMatchingTrailingTokens() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    var generator = new InputGenerator(testParser).withSeed(3).withBreadth(1).withTargetSize(20);
+
+    // рул line не заканчивается EOF: с разделителем-переводом строки он читает только первое слово
+    generator.withSeparator("\n");
+    assertThat(generator.generate(DemoWordParser.RULE_line).split("\n")).hasSizeGreaterThan(2);
+    assertThrows(IllegalStateException.class, () -> generator.generateMatching(DemoWordParser.RULE_line, 5));
+
+    generator.withSeparator(" ");
+    testParser.assertThatRule(DemoWordParser.RULE_line, generator.generateMatching(DemoWordParser.RULE_line, 5))
+      .matches();
+  }
+}
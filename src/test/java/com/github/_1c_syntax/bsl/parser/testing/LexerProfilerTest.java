@@ -0,0 +1,79 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LexerProfilerTest {
+
+  @Test
+  void testProfile() {
+    var profiler = new LexerProfiler();
+    profiler.recordInput(10);
+    profiler.record(0, 1, 100, 2);
+    profiler.record(0, 1, 50, 0);
+    profiler.record(5, 40, 300, 1);
+    profiler.record(0, Token.EOF, 10, 0);
+
+    var profile = profiler.profile(mode -> "mode" + mode, type -> "type" + type);
+    assertThat(profile.getChars()).isEqualTo(10);
+    assertThat(profile.getTokens()).isEqualTo(4);
+    assertThat(profile.getNanos()).isEqualTo(460);
+    assertThat(profile.getDfaMisses()).isEqualTo(3);
+    assertThat(profile.getTokensByType()).containsExactly(
+      entry("type1", 2L), entry("type-1", 1L), entry("type40", 1L));
+    assertThat(profile.getNanosByMode()).containsExactly(entry("mode5", 300L), entry("mode0", 160L));
+    assertThat(profile.getDfaMissesByType()).containsExactly(
+      entry("type1", 2L), entry("type40", 1L), entry("type-1", 0L));
+  }
+
+  @Test
+  void testTestLexerProfile() {
+    var testLexer = new TestLexer<>(DemoSplitLexer.class);
+    var interpreter = testLexer.getLexer().getInterpreter();
+
+    var profile = testLexer.profile(DemoSplitLexer.DEFAULT_MODE, List.of("ab cd\n", "\"ef\"\n"));
+    assertThat(testLexer.getLexer().getInterpreter()).isSameAs(interpreter);
+    assertThat(profile.getChars()).isEqualTo(11);
+    assertThat(profile.getTokens()).isEqualTo(9);
+    assertThat(profile.getTokensByType()).containsOnly(
+      entry("WORD", 2L), entry("WS", 1L), entry("NL", 2L), entry("STRING", 1L), entry("EOF", 2L));
+    assertThat(profile.getNanosByMode()).containsOnlyKeys("0");
+    // рукописный лексер не обращается к симулятору
+    assertThat(profile.getDfaMisses()).isZero();
+  }
+
+  @Test
+  void testLexerWithoutATN() {
+    var testLexer = new TestLexer<>(DemoLexer.class);
+    assertThrows(IllegalStateException.class, () -> testLexer.profile("text"));
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoEmptyLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoParser;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoWordParser;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParseResultCacheTest {
+
+  @Test
+  void testTokens(@TempDir Path tempDir) throws IOException {
+    var cache = ParseResultCache.open(tempDir);
+    var key = cache.key(DemoLexer.class, null, 0, -1, "ab cd");
+    assertThat(cache.loadTokens(key, CharStreams.fromString("ab cd"))).isNull();
+
+    var tokens = new CompactTokenList(CharStreams.fromString("ab cd"), 3);
+    tokens.append(1, 0, 0, 1, 1, 0);
+    tokens.append(2, 1, 2, 2, 1, 2);
+    tokens.append(3, 0, 3, 4, 1, 3);
+    tokens.append(Token.EOF, 0, 5, 4, 1, 5);
+    cache.storeTokens(key, tokens);
+
+    var loaded = cache.loadTokens(key, CharStreams.fromString("ab cd"));
+    assertThat(loaded).isNotNull();
+    assertThat(loaded.stream().map(Token::getType)).containsExactly(1, 2, 3, Token.EOF);
+    assertThat(loaded.channel(1)).isEqualTo(1);
+    assertThat(loaded.column(3)).isEqualTo(5);
+    assertThat(loaded.text(2)).isEqualTo("cd");
+
+    try (var files = Files.walk(tempDir)) {
+      var file = files.filter(Files::isRegularFile).findFirst().orElseThrow();
+      Files.write(file, new byte[]{0, 0, 0, 1, 0, 0});
+    }
+    assertThat(cache.loadTokens(key, CharStreams.fromString("ab cd"))).isNull();
+  }
+
+  @Test
+  void testKey(@TempDir Path tempDir) {
+    var cache = ParseResultCache.open(tempDir);
+    var key = cache.key(DemoLexer.class, DemoParser.class, 0, 0, "text");
+
+    assertThat(key).isEqualTo(cache.key(DemoLexer.class, DemoParser.class, 0, 0, "text"));
+    assertThat(key)
+      .isNotEqualTo(cache.key(DemoLexer.class, DemoParser.class, 0, 0, "text2"))
+      .isNotEqualTo(cache.key(DemoLexer.class, DemoParser.class, 1, 0, "text"))
+      .isNotEqualTo(cache.key(DemoLexer.class, DemoParser.class, 0, 1, "text"))
+      .isNotEqualTo(cache.key(DemoLexer.class, null, 0, 0, "text"))
+      .isNotEqualTo(cache.key(DemoEmptyLexer.class, DemoParser.class, 0, 0, "text"))
+      .isNotEqualTo(cache.key(UpperCaseLexer.class, DemoParser.class, 0, 0, "text"));
+  }
+
+  @Test
+  void testExplicitText(@TempDir Path tempDir) {
+    var testLexer = new TestLexer<>(UpperCaseLexer.class);
+    testLexer.setCache(null);
+    testLexer.assertThat("ab cd").tokenHasText(0, "AB").tokenHasText(2, "CD");
+
+    testLexer.setCache(ParseResultCache.open(tempDir));
+    testLexer.assertThat("ab cd").tokenHasText(0, "AB").tokenHasText(2, "CD");
+    // второй раз токены читаются из кэша
+    testLexer.assertThat("ab cd").tokenHasText(0, "AB").tokenHasText(2, "CD");
+  }
+
+  @Test
+  void testParserOnCachedMatch(@TempDir Path tempDir) {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    testParser.setTreeCacheSize(0);
+    testParser.getLexer().setCache(ParseResultCache.open(tempDir));
+    testParser.assertThat("first line\n").matches();
+
+    var parserAsserts = testParser.assertThat("first line\n");
+    assertThat(parserAsserts.matches()).isEqualTo(parserAsserts);
+    var parser = testParser.parser();
+    assertThat(parser).isNotNull();
+    assertThat(parserAsserts.matches(parser.file())).isEqualTo(parserAsserts);
+    assertThat(testParser.parser()).isSameAs(parser);
+    assertThat(parserAsserts.containsRule(DemoWordParser.RULE_word, 2)).isEqualTo(parserAsserts);
+  }
+
+  @Test
+  void testCoverageOnCacheHit(@TempDir Path tempDir) {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    testParser.setTreeCacheSize(0);
+    var testLexer = testParser.getLexer();
+    testLexer.setCache(ParseResultCache.open(tempDir));
+    testLexer.getTokens(DemoSplitLexer.DEFAULT_MODE, "first line\n");
+    testParser.assertThat("first line\n").matches();
+
+    GrammarCoverage.reset();
+    GrammarCoverage.setEnabled(true);
+    try {
+      testLexer.getTokens(DemoSplitLexer.DEFAULT_MODE, "first line\n");
+      assertThat(GrammarCoverage.of(testLexer.getLexer()).report().getCoveredTokens()).isEqualTo(3);
+
+      testParser.assertThat("first line\n").matches();
+      assertThat(GrammarCoverage.of(testParser.parser()).report().getCoveredRules()).isEqualTo(3);
+    } finally {
+      GrammarCoverage.setEnabled(false);
+      GrammarCoverage.reset();
+    }
+  }
+
+  @Test
+  void testCachedMatch(@TempDir Path tempDir) {
+    var testParser = new TestParser<>(DemoParser.class, DemoLexer.class);
+    var cache = ParseResultCache.open(tempDir);
+    var key = cache.key(DemoLexer.class, DemoParser.class, 0, 0, "text");
+
+    assertThrows(IllegalStateException.class, () -> new ParserAsserts(testParser, () -> {
+      throw new IllegalStateException("parser created");
+    }, 0, cache, key, null));
+
+    cache.storeMatched(key);
+    assertThat(cache.isMatched(key)).isTrue();
+
+    var asserts = new ParserAsserts(testParser, () -> {
+      throw new IllegalStateException("parser created");
+    }, 0, cache, key, null);
+    asserts.matches();
+    assertThrows(IllegalStateException.class, () -> asserts.containsRule(0, 1));
+  }
+
+  /**
+   * Лексер, заменяющий текст слов на заглавный
+   */
+  static class UpperCaseLexer extends DemoSplitLexer {
+    UpperCaseLexer(CharStream input) {
+      super(input);
+    }
+
+    @Override
+    public Token nextToken() {
+      var token = super.nextToken();
+      if (token.getType() == WORD) {
+        ((CommonToken) token).setText(token.getText().toUpperCase());
+      }
+      return token;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IncrementalTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseTreeCacheTest {
+
+  @Test
+  void testEviction() {
+    var cache = new ParseTreeCache(2 * ParseTreeCache.KEY_BYTES + ParseTreeCache.NODE_BYTES * 3);
+    var ast = new ParserRuleContext();
+
+    cache.putTree(0, "text", 0, null, ast, 2);
+    cache.putTree(0, "text", 1, null, ast, 1);
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.bytes()).isEqualTo(2 * ParseTreeCache.KEY_BYTES + ParseTreeCache.NODE_BYTES * 3);
+
+    assertThat(cache.getTree(0, "text", 0).getAst()).isSameAs(ast);
+    assertThat(cache.getTree(1, "text", 0)).isNull();
+    assertThat(cache.getTree(0, "other", 0)).isNull();
+
+    cache.putTree(0, "text", 2, null, ast, 1);
+    assertThat(cache.getTree(0, "text", 1)).isNull();
+    assertThat(cache.getTree(0, "text", 0)).isNotNull();
+    assertThat(cache.getTree(0, "text", 2)).isNotNull();
+    assertThat(cache.bytes()).isEqualTo(2 * ParseTreeCache.KEY_BYTES + ParseTreeCache.NODE_BYTES * 3);
+
+    cache.putTree(0, "huge", 0, null, ast, 10);
+    assertThat(cache.getTree(0, "huge", 0)).isNull();
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void testTokenBytes() {
+    var tokenStream = new IncrementalTokenStream(new DemoSplitLexer(CharStreams.fromString("ab cd\n")));
+    tokenStream.fill();
+    var streamBytes = 2 * 6 + ParseTreeCache.TOKEN_BYTES * 5;
+    var cache = new ParseTreeCache(1024 * 1024);
+
+    cache.putTokens(0, "ab cd\n", tokenStream);
+    assertThat(cache.getTokens(0, "ab cd\n")).isSameAs(tokenStream);
+    assertThat(cache.bytes()).isEqualTo(ParseTreeCache.KEY_BYTES + streamBytes);
+
+    cache.putTree(0, "ab cd\n", 0, tokenStream, new ParserRuleContext(), 1);
+    assertThat(cache.getTree(0, "ab cd\n", 0).getTokens()).isSameAs(tokenStream);
+    assertThat(cache.bytes())
+      .isEqualTo(2 * (ParseTreeCache.KEY_BYTES + streamBytes) + ParseTreeCache.NODE_BYTES);
+  }
+}
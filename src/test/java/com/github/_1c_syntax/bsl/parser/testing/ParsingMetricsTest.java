@@ -0,0 +1,154 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParsingMetricsTest {
+
+  @AfterEach
+  void tearDown() {
+    ParsingMetrics.getInstance().setEnabled(false);
+    ParsingMetrics.getInstance().reset();
+  }
+
+  @Test
+  void testRecord() {
+    var metrics = ParsingMetrics.getInstance();
+    metrics.record(PhaseEvent.LEXING, "fixture.bsl", null, 2_000, 100, 10);
+    metrics.record(PhaseEvent.LEXING, "fixture.bsl", null, 4_000, 100, 10);
+    metrics.record(PhaseEvent.AST_BUILDING, null, "file", 1_000_000, 50, 5);
+    metrics.recordNodes(PhaseEvent.AST_BUILDING, null, "file", 7);
+
+    var fixtures = metrics.fixtureReport();
+    assertThat(fixtures).hasSize(2);
+    assertThat(fixtures.get(0).getFixture()).isEmpty();
+    assertThat(fixtures.get(0).getRule()).isEqualTo("file");
+    assertThat(fixtures.get(0).getNodes()).isEqualTo(7);
+
+    var lexing = fixtures.get(1);
+    assertThat(lexing.getFixture()).isEqualTo("fixture.bsl");
+    assertThat(lexing.getCount()).isEqualTo(2);
+    assertThat(lexing.getTotalNanos()).isEqualTo(6_000);
+    assertThat(lexing.getMaxNanos()).isEqualTo(4_000);
+    assertThat(lexing.getTokens()).isEqualTo(20);
+    assertThat(lexing.getTokensPerSecond()).isEqualTo(20L * 1_000_000_000 / 6_000);
+
+    metrics.record(PhaseEvent.LEXING, "other.bsl", null, 100_000, 100, 10);
+
+    var latencies = metrics.latencyReport();
+    assertThat(latencies).hasSize(3);
+    assertThat(latencies.get(0).getFixture()).isEmpty();
+    assertThat(latencies.get(1).getPhase()).isEqualTo(PhaseEvent.LEXING);
+    assertThat(latencies.get(1).getFixture()).isEqualTo("fixture.bsl");
+    assertThat(latencies.get(1).getCount()).isEqualTo(2);
+    assertThat(latencies.get(1).getP50Nanos()).isBetween(2_000L, 2_500L);
+    assertThat(latencies.get(1).getMaxNanos()).isBetween(4_000L, 5_000L);
+    assertThat(latencies.get(2).getFixture()).isEqualTo("other.bsl");
+    assertThat(latencies.get(2).getCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testHistogram() {
+    var histogram = new LatencyHistogram();
+    assertThat(histogram.percentile(50)).isZero();
+    for (var value = 1; value <= 100; value++) {
+      histogram.record(value);
+    }
+    assertThat(histogram.count()).isEqualTo(100);
+    assertThat(histogram.percentile(50)).isBetween(50L, 63L);
+    assertThat(histogram.percentile(100)).isBetween(100L, 127L);
+    for (var value : new long[]{0, 3, 4, 7, 8, 1000, Long.MAX_VALUE}) {
+      var index = LatencyHistogram.index(value);
+      assertThat(LatencyHistogram.lowerBound(index)).isLessThanOrEqualTo(value);
+    }
+  }
+
+  @Test
+  void testReport(@TempDir Path tempDir) throws IOException {
+    var metrics = ParsingMetrics.getInstance();
+    metrics.record(PhaseEvent.LEXING, "folder/a,b.bsl", null, 1_000, 10, 2);
+
+    var json = tempDir.resolve("metrics.json");
+    metrics.writeReport(json);
+    assertThat(Files.readString(json))
+      .contains("\"fixtures\"")
+      .contains("\"fixture\": \"folder/a,b.bsl\"")
+      .contains("\"latencies\"");
+
+    var csv = tempDir.resolve("report/metrics.csv");
+    metrics.writeReport(csv);
+    assertThat(Files.readAllLines(csv))
+      .hasSize(2)
+      .element(1).asString().startsWith("lexing,\"folder/a,b.bsl\",,1,1000");
+    assertThat(Files.readAllLines(tempDir.resolve("report/metrics-latency.csv")))
+      .hasSize(2)
+      .element(1).asString().startsWith("lexing,\"folder/a,b.bsl\",,1,");
+  }
+
+  @Test
+  void testEnabled() {
+    var metrics = ParsingMetrics.getInstance();
+    metrics.setEnabled(true);
+    var probe = PhaseProbe.start(PhaseEvent.MATCHING);
+    assertThat(probe.isRecording()).isTrue();
+    FixtureContext.with("fixture.bsl", () -> {
+      probe.complete(10, 1, "rule1");
+      return null;
+    });
+    assertThat(metrics.fixtureReport())
+      .singleElement()
+      .satisfies(row -> {
+        assertThat(row.getFixture()).isEqualTo("fixture.bsl");
+        assertThat(row.getRule()).isEqualTo("rule1");
+      });
+
+    metrics.setEnabled(false);
+    assertThat(PhaseProbe.start(PhaseEvent.MATCHING).isRecording()).isFalse();
+  }
+
+  @Test
+  void testLexerFixture() {
+    var metrics = ParsingMetrics.getInstance();
+    metrics.setEnabled(true);
+    var testLexer = new TestLexer<>(DemoSplitLexer.class);
+    testLexer.setCache(null);
+    testLexer.assertThatFile("words.txt").containsAll(DemoSplitLexer.WORD);
+
+    assertThat(metrics.fixtureReport())
+      .singleElement()
+      .satisfies(row -> {
+        assertThat(row.getPhase()).isEqualTo(PhaseEvent.LEXING);
+        assertThat(row.getFixture()).isEqualTo("words.txt");
+        assertThat(row.getTokens()).isEqualTo(11);
+      });
+  }
+}
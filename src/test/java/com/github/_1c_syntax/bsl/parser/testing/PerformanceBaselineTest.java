@@ -0,0 +1,61 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PerformanceBaselineTest {
+
+  @Test
+  void testUpdateAndCheck(@TempDir Path tempDir) {
+    var path = tempDir.resolve("baseline/parser-baseline.properties");
+    var baseline = PerformanceBaseline.load(path).withUpdate(true);
+    assertThat(baseline.get("folder/module one.bsl")).isNull();
+
+    baseline.assertCost("folder/module one.bsl", new ParseCost(100, 50, 200, 2));
+    baseline.assertCost("other.bsl", new ParseCost(10, 5, 20, 0));
+    assertThat(path).exists();
+
+    var loaded = PerformanceBaseline.load(path).withUpdate(false).withTolerance(0.2);
+    assertThat(loaded.get("folder/module one.bsl")).isEqualTo(new ParseCost(100, 50, 200, 2));
+    assertThat(loaded.get("other.bsl")).isEqualTo(new ParseCost(10, 5, 20, 0));
+
+    loaded.assertCost("folder/module one.bsl", new ParseCost(100, 60, 240, 2));
+    loaded.assertCost("folder/module one.bsl", new ParseCost(90, 10, 20, 0));
+    assertThrows(AssertionError.class,
+      () -> loaded.assertCost("folder/module one.bsl", new ParseCost(100, 50, 241, 2)));
+    assertThrows(AssertionError.class,
+      () -> loaded.assertCost("other.bsl", new ParseCost(10, 5, 20, 1)));
+    // рост количества токенов - деградация лексера
+    loaded.assertCost("folder/module one.bsl", new ParseCost(120, 50, 200, 2));
+    assertThrows(AssertionError.class,
+      () -> loaded.assertCost("folder/module one.bsl", new ParseCost(121, 50, 200, 2)));
+    assertThrows(AssertionError.class,
+      () -> loaded.assertCost("unknown.bsl", new ParseCost(10, 5, 20, 1)));
+  }
+}
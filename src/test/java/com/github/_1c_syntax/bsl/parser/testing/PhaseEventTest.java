@@ -0,0 +1,82 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoParser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.antlr.v4.runtime.IncrementalTokenStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+class PhaseEventTest {
+
+  @Test
+  void testEvents(@TempDir Path tempDir) throws IOException {
+    var testParser = spy(new TestParser<>(DemoParser.class, DemoLexer.class));
+    var testLexer = spy(new TestLexer<>(DemoLexer.class));
+    doReturn(new IncrementalTokenStream(testLexer.getLexer()))
+      .when(testLexer).getTokensStream(eq(DemoLexer.DEFAULT_MODE), anyString());
+    doReturn(testLexer).when(testParser).getLexer();
+
+    var file = tempDir.resolve("phases.jfr");
+    try (var recording = new Recording()) {
+      recording.enable(PhaseEvent.class);
+      recording.start();
+
+      // дерево строится и проверяется уже после выхода из assertThatFile
+      testParser.assertThatFile("testFixture.txt").matches();
+      testParser.assertThat("").containsRule(0, 1);
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    var events = RecordingFile.readAllEvents(file).stream()
+      .filter(event -> "com.github._1c_syntax.bsl.parser.testing.Phase".equals(event.getEventType().getName()))
+      .toList();
+    assertThat(events)
+      .filteredOn(event -> "testFixture.txt".equals(event.getString("fixture")))
+      .extracting(event -> event.getString("phase"))
+      .containsExactlyInAnyOrder(PhaseEvent.PARSER_CREATION, PhaseEvent.AST_BUILDING, PhaseEvent.MATCHING);
+    assertThat(events)
+      .filteredOn(event -> event.getString("fixture").isEmpty())
+      .extracting(event -> event.getString("phase"))
+      .containsExactlyInAnyOrder(PhaseEvent.PARSER_CREATION, PhaseEvent.AST_BUILDING);
+    assertThat(events)
+      .filteredOn(event -> PhaseEvent.AST_BUILDING.equals(event.getString("phase")))
+      .extracting(event -> event.getString("rule"))
+      .containsOnly("rule1");
+    assertThat(events).extracting(RecordedEvent::getDuration).allMatch(duration -> !duration.isNegative());
+  }
+}
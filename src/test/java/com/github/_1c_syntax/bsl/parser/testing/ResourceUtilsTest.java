@@ -22,6 +22,7 @@
 package com.github._1c_syntax.bsl.parser.testing;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -42,4 +43,39 @@ class ResourceUtilsTest {
     assertThrows(IllegalArgumentException.class, () -> ResourceUtils.byName(""));
     assertThrows(AssertionError.class, () -> ResourceUtils.byName("unknown"));
   }
+
+  @Test
+  void fixtures() {
+    try (var fixtures = ResourceUtils.fixtures("folder")) {
+      assertThat(fixtures.toList())
+        .singleElement()
+        .satisfies(fixture -> {
+          assertThat(fixture.getName()).isEqualTo("folder/testFixtureInFolder.txt");
+          assertThat(fixture).hasToString("folder/testFixtureInFolder.txt");
+          assertThat(fixture.content()).isEqualTo("// some text");
+        });
+    }
+
+    try (var fixtures = ResourceUtils.fixtures("folder", "bsl")) {
+      assertThat(fixtures).isEmpty();
+    }
+
+    try (var fixtures = ResourceUtils.fixtures("src/test/resources/folder", "TXT")) {
+      assertThat(fixtures.map(Fixture::getName)).containsExactly("src/test/resources/folder/testFixtureInFolder.txt");
+    }
+  }
+
+  @Test
+  void fixturesError() {
+    assertThrows(IllegalArgumentException.class, () -> ResourceUtils.fixtures(""));
+    assertThrows(IllegalArgumentException.class, () -> ResourceUtils.fixtures("unknown"));
+  }
+
+  @ParameterizedTest
+  @BslFixtures(value = "folder", extensions = "txt")
+  void fixturesSource(Fixture fixture) {
+    assertThat(fixture.getName()).startsWith("folder/");
+    assertThat(fixture.content()).isEqualTo("// some text");
+    assertThat(FixtureContext.current()).isEqualTo(fixture.getName());
+  }
 }
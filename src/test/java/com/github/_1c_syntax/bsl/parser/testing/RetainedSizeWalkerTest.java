@@ -0,0 +1,70 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetainedSizeWalkerTest {
+
+  @Test
+  void testArrays() {
+    var retainedSize = new RetainedSizeWalker(String::valueOf).measure(new int[10]);
+    assertThat(retainedSize.getTotalBytes()).isEqualTo(56);
+    assertThat(retainedSize.getObjectCount()).isEqualTo(1);
+    assertThat(retainedSize.getBytesByType()).containsEntry("[I", 56L);
+    assertThat(retainedSize.getBytesByRule()).isEmpty();
+
+    assertThat(RetainedSizeWalker.arraySize(byte.class, 3)).isEqualTo(24);
+    assertThat(RetainedSizeWalker.arraySize(Object.class, 3)).isEqualTo(32);
+  }
+
+  @Test
+  void testGraph() {
+    var shared = "shared";
+    var list = new ArrayList<Object>(List.of(shared, shared, new Holder(shared, new long[2])));
+    list.add(list);
+
+    var retainedSize = new RetainedSizeWalker(String::valueOf).measure(list);
+    assertThat(retainedSize.getObjectCount()).isEqualTo(4);
+    assertThat(retainedSize.getBytesByType())
+      .containsOnlyKeys(ArrayList.class.getName(), String.class.getName(), Holder.class.getName(), "[J")
+      .containsEntry(Holder.class.getName(), 24L)
+      .containsEntry("[J", 32L);
+    assertThat(retainedSize.getTotalBytes())
+      .isEqualTo(retainedSize.getBytesByType().values().stream().mapToLong(Long::longValue).sum());
+  }
+
+  private static final class Holder {
+    private final String text;
+    private final long[] values;
+
+    private Holder(String text, long[] values) {
+      this.text = text;
+      this.values = values;
+    }
+  }
+}
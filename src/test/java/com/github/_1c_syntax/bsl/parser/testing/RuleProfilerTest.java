@@ -0,0 +1,98 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleProfilerTest {
+
+  @Test
+  void testNestedRules() {
+    var profiler = new RuleProfiler(3);
+    var root = context(0, null);
+    var child = context(1, root);
+
+    profiler.enterEveryRule(root);
+    profiler.enterEveryRule(child);
+    profiler.exitEveryRule(child);
+    profiler.exitEveryRule(root);
+
+    var timings = profiler.timings(String::valueOf);
+    assertThat(timings).extracting(RuleProfile.RuleTiming::getRule).containsExactly("0", "1");
+    var rootTiming = timings.get(0);
+    var childTiming = timings.get(1);
+    assertThat(rootTiming.getInvocations()).isEqualTo(1);
+    assertThat(rootTiming.getInclusiveNanos()).isGreaterThanOrEqualTo(childTiming.getInclusiveNanos());
+    assertThat(rootTiming.getExclusiveNanos())
+      .isEqualTo(rootTiming.getInclusiveNanos() - childTiming.getInclusiveNanos());
+  }
+
+  @Test
+  void testLeftRecursion() {
+    var profiler = new RuleProfiler(3);
+    var outer = context(2, null);
+    var inner = context(2, null);
+
+    profiler.enterEveryRule(inner);
+    inner.parent = outer;
+    profiler.enterEveryRule(outer);
+    profiler.exitEveryRule(outer);
+
+    var timing = profiler.timings(String::valueOf).get(0);
+    assertThat(timing.getRule()).isEqualTo("2");
+    assertThat(timing.getInvocations()).isEqualTo(2);
+
+    profiler.exitEveryRule(inner);
+    assertThat(profiler.timings(String::valueOf).get(0).getInvocations()).isEqualTo(2);
+  }
+
+  @Test
+  void testProfile() {
+    Map<String, List<RuleProfile.RuleTiming>> fixtures = new LinkedHashMap<>();
+    fixtures.put("a", List.of(new RuleProfile.RuleTiming("x", 1, 10, 5, 100, 2),
+      new RuleProfile.RuleTiming("y", 1, 6, 6, 10, 1)));
+    fixtures.put("b", List.of(new RuleProfile.RuleTiming("x", 2, 20, 10, 200, 4)));
+
+    var profile = RuleProfile.of(fixtures);
+    assertThat(profile.getFixtures()).containsOnlyKeys("a", "b");
+    assertThat(profile.getFixtures().get("a")).extracting(RuleProfile.RuleTiming::getRule).containsExactly("y", "x");
+    assertThat(profile.getCorpus()).containsExactly(
+      new RuleProfile.RuleTiming("x", 3, 30, 15, 300, 6),
+      new RuleProfile.RuleTiming("y", 1, 6, 6, 10, 1));
+  }
+
+  private static ParserRuleContext context(int ruleIndex, ParserRuleContext parent) {
+    return new ParserRuleContext(parent, 0) {
+      @Override
+      public int getRuleIndex() {
+        return ruleIndex;
+      }
+    };
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SplitLexTest {
+
+  @Test
+  void testSplittable() {
+    var testLexer = new TestLexer<>(DemoSplitLexer.class);
+    var text = "first line\nsecond line\nthird line\nfourth line\n";
+
+    var result = testLexer.lexInParallel(text, 4);
+    assertThat(result.matchesSequential()).isTrue();
+    assertThat(result.getSplitPoints()).containsExactly(11, 23, 34);
+    assertThat(result.getUnsafeSplitPoints()).isEmpty();
+    for (var i = 0; i < result.getTokens().size(); i++) {
+      assertThat(result.getTokens().get(i).getTokenIndex()).isEqualTo(i);
+    }
+    assertThat(result.getTokens().get(result.getTokens().size() - 1).getType()).isEqualTo(Token.EOF);
+    assertThat(result.getTokens()).filteredOn(token -> token.getText().equals("fourth"))
+      .singleElement()
+      .satisfies(token -> {
+        assertThat(token.getLine()).isEqualTo(4);
+        assertThat(token.getCharPositionInLine()).isZero();
+      });
+  }
+
+  @Test
+  void testMultilineToken() {
+    var testLexer = new TestLexer<>(DemoSplitLexer.class);
+    var text = "a \"multi\nline\nstring\" b\nc\n";
+
+    var result = testLexer.lexInParallel(text, 3);
+    assertThat(result.matchesSequential()).isTrue();
+    assertThat(result.getSplitPoints()).containsExactly(24);
+    assertThat(result.getUnsafeSplitPoints()).containsExactly(9);
+    assertThat(result.getTokens()).filteredOn(token -> token.getType() == DemoSplitLexer.STRING)
+      .singleElement()
+      .satisfies(token -> assertThat(token.getText()).isEqualTo("\"multi\nline\nstring\""));
+  }
+
+  @Test
+  void testSharedCodePoints() {
+    var codePoints = "a\uD83D\uDE00b".codePoints().toArray();
+    var first = new CodePointArrayCharStream(codePoints);
+    var second = new CodePointArrayCharStream(codePoints);
+
+    first.seek(1);
+    assertThat(first.LA(1)).isEqualTo(0x1F600);
+    assertThat(first.LA(-1)).isEqualTo('a');
+    assertThat(second.index()).isZero();
+    assertThat(second.LA(1)).isEqualTo('a');
+
+    first.consume();
+    first.consume();
+    assertThat(first.LA(1)).isEqualTo(IntStream.EOF);
+    assertThat(first.size()).isEqualTo(3);
+    assertThat(second.getText(Interval.of(1, 2))).isEqualTo("\uD83D\uDE00b");
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoEmptyParser;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoWordParser;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingParseTest {
+
+  @Test
+  void testStreamingLexer() {
+    var testLexer = new TestLexer<>(DemoSplitLexer.class);
+    var lexer = testLexer.streamingLexer(new StringReader("\uFEFFfirst \"a\nb\"\nsecond"));
+
+    var first = lexer.nextToken();
+    assertThat(first.getText()).isEqualTo("first");
+    assertThat(first.getCharPositionInLine()).isZero();
+    lexer.nextToken();
+    assertThat(lexer.nextToken().getText()).isEqualTo("\"a\nb\"");
+    lexer.nextToken();
+    assertThat(lexer.nextToken().getText()).isEqualTo("second");
+    assertThat(lexer.nextToken().getType()).isEqualTo(Token.EOF);
+  }
+
+  @Test
+  void testStreamingParse() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+
+    testParser.assertThatStream(new StringReader(""))
+      .matches()
+      .peakBufferedTokensAtMost(1);
+
+    // 6 токенов в строке: WORD WS STRING WS WORD NL
+    var text = "first \"quoted\" line\n".repeat(10_000);
+    var asserts = testParser.assertThatStream(DemoWordParser.RULE_file, new StringReader(text))
+      .matches()
+      .peakBufferedTokensAtMost(1);
+    assertThat(asserts.getTokenCount()).isEqualTo(60_000);
+
+    var failed = testParser.assertThatStream(new StringReader(text + "unterminated")).noMatches();
+    assertThat(failed.getSyntaxError()).isNotNull();
+    assertThat(failed.getTokenCount()).isEqualTo(60_001);
+    failed.peakBufferedTokensAtMost(1);
+  }
+
+  @Test
+  void testStreamingRequiresTokenStream() {
+    var testParser = new TestParser<>(CommonStreamParser.class, DemoSplitLexer.class);
+    var reader = new StringReader("word\n");
+    assertThrows(UnsupportedOperationException.class, () -> testParser.assertThatStream(reader));
+  }
+
+  /**
+   * Парсер, как и инкрементальный, создается только над буферизующим потоком токенов
+   */
+  public static class CommonStreamParser extends DemoEmptyParser {
+    public CommonStreamParser(CommonTokenStream input) {
+      super(input);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing;
+
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoDriftParser;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoWordParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StressRunnerTest {
+
+  private static final List<String> CORPUS = List.of("first line\n", "second \"quoted\" line\n", "third\n");
+
+  @AfterEach
+  void tearDown() {
+    DemoDriftParser.driftAfter(Integer.MAX_VALUE);
+  }
+
+  @Test
+  void testLevels() {
+    var report = new StressRunner<>(DemoWordParser.class, DemoSplitLexer.class, CORPUS).run(1, 3);
+
+    assertThat(report.isConsistent()).isTrue();
+    var singleThreaded = report.getSingleThreaded();
+    assertThat(singleThreaded.getThreads()).isEqualTo(1);
+    assertThat(singleThreaded.getParses()).isEqualTo(CORPUS.size());
+    assertThat(singleThreaded.getTokens()).isEqualTo(15);
+    assertThat(report.getLevels()).extracting(StressReport.Level::getThreads).containsExactly(1, 3);
+    assertThat(report.getLevels()).allSatisfy(level -> {
+      assertThat(level.getParses()).isEqualTo(CORPUS.size());
+      assertThat(level.getTokens()).isEqualTo(singleThreaded.getTokens());
+      assertThat(level.getEfficiency()).isPositive();
+    });
+  }
+
+  @Test
+  void testMismatch() {
+    // прогрев и однопоточный замер создают по экземпляру парсера на каждый текст
+    DemoDriftParser.driftAfter(2 * CORPUS.size());
+
+    var report = new StressRunner<>(DemoDriftParser.class, DemoSplitLexer.class, CORPUS).run(2);
+
+    assertThat(report.isConsistent()).isFalse();
+    assertThat(report.getMismatches())
+      .hasSize(CORPUS.size())
+      .allSatisfy(mismatch -> assertThat(mismatch).startsWith("2 threads, input "));
+  }
+}
@@ -24,6 +24,7 @@ package com.github._1c_syntax.bsl.parser.testing;
 import com.github._1c_syntax.bsl.parser.testing.demo.DemoEmptyLexer;
 import com.github._1c_syntax.bsl.parser.testing.demo.DemoLexer;
 import com.github._1c_syntax.bsl.parser.testing.demo.DemoToken;
+import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.Token;
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
@@ -95,4 +96,62 @@ class TestLexerTest {
       }
     );
   }
-}
\ No newline at end of file
+
+  @Test
+  void testRetainedSize() {
+    var testLexer = spy(new TestLexer<>(DemoLexer.class));
+    List<Token> tokens = List.of(new DemoToken("t1", 1, 1, 1), new DemoToken("t2", 2, 1, 4));
+    doReturn(tokens).when(testLexer).getTokens(DemoLexer.DEFAULT_MODE, "t1 t2");
+
+    var lexerAsserts = testLexer.assertThat("t1 t2");
+    var retainedSize = lexerAsserts.retainedSize();
+    assertThat(retainedSize.getBytesByType()).containsKeys(DemoToken.class.getName(), String.class.getName());
+    assertThat(retainedSize.getObjectCount()).isEqualTo(5);
+
+    assertThat(lexerAsserts.retainedBytesPerSourceByteAtMost(1_000)).isEqualTo(lexerAsserts);
+    assertThrows(AssertionError.class, () -> lexerAsserts.retainedBytesPerSourceByteAtMost(1));
+  }
+
+  @Test
+  void testPositionLookup() {
+    var testLexer = spy(new TestLexer<>(DemoLexer.class));
+    var input = "a bc\nd";
+    List<Token> tokens = List.of(
+      token(1, 0, 0, 0, 1, 0),
+      token(2, 1, 1, 1, 1, 1),
+      token(1, 0, 2, 3, 1, 2),
+      token(2, 1, 4, 4, 1, 4),
+      token(1, 0, 5, 5, 2, 0),
+      token(Token.EOF, 0, 6, 5, 2, 1)
+    );
+    doReturn(tokens).when(testLexer).getTokens(DemoLexer.DEFAULT_MODE, input);
+
+    var lexerAsserts = testLexer.assertThat(input);
+    assertThat(lexerAsserts.tokenAtOffset(0)).isSameAs(tokens.get(0));
+    assertThat(lexerAsserts.tokenAtOffset(3)).isSameAs(tokens.get(2));
+    assertThat(lexerAsserts.tokenAtOffset(6)).isNull();
+    assertThat(lexerAsserts.tokenAt(1, 2)).isSameAs(tokens.get(2));
+    assertThat(lexerAsserts.tokenAt(2, 0)).isSameAs(tokens.get(4));
+    assertThat(lexerAsserts.tokenAt(3, 0)).isNull();
+    assertThat(lexerAsserts.tokenAt(1, 4)).isSameAs(tokens.get(3));
+    assertThat(lexerAsserts.tokenAt(1, 5)).isNull();
+    assertThat(lexerAsserts.tokenAt(2, 1)).isNull();
+    assertThat(lexerAsserts.tokensOnLine(1)).containsExactlyElementsOf(tokens.subList(0, 4));
+    assertThat(lexerAsserts.tokensOnLine(2)).containsExactlyElementsOf(tokens.subList(4, 6));
+    assertThat(lexerAsserts.tokensOnLine(3)).isEmpty();
+
+    assertThat(lexerAsserts.tokenAtHasType(1, 3, 1)).isEqualTo(lexerAsserts);
+    assertThrows(AssertionFailedError.class, () -> lexerAsserts.tokenAtHasType(1, 1, 1));
+    assertThrows(AssertionError.class, () -> lexerAsserts.tokenAtHasType(5, 1, 1));
+  }
+
+  private static Token token(int type, int channel, int start, int stop, int line, int column) {
+    var token = new CommonToken(type, "");
+    token.setChannel(channel);
+    token.setStartIndex(start);
+    token.setStopIndex(stop);
+    token.setLine(line);
+    token.setCharPositionInLine(column);
+    return token;
+  }
+}
@@ -24,14 +24,27 @@ package com.github._1c_syntax.bsl.parser.testing;
 import com.github._1c_syntax.bsl.parser.testing.demo.DemoEmptyParser;
 import com.github._1c_syntax.bsl.parser.testing.demo.DemoLexer;
 import com.github._1c_syntax.bsl.parser.testing.demo.DemoParser;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoSplitLexer;
+import com.github._1c_syntax.bsl.parser.testing.demo.DemoWordParser;
 import org.antlr.v4.runtime.IncrementalTokenStream;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class TestParserTest {
 
@@ -47,6 +60,8 @@ class TestParserTest {
 
     assertThat(testParser.ruleName(0)).isEqualTo("rule1");
     assertThat(testParser.ruleName(5)).isEqualTo("5");
+    assertThat(testParser.ruleIndex("rule2")).isEqualTo(1);
+    assertThrows(IllegalArgumentException.class, () -> testParser.ruleIndex("unknown"));
 
     var testParser2 = new TestParser<>(DemoEmptyParser.class, DemoLexer.class);
     assertThat(testParser2.getParserClazz())
@@ -62,13 +77,7 @@ class TestParserTest {
 
   @Test
   void testAssert() {
-    var testParser = spy(new TestParser<>(DemoParser.class, DemoLexer.class));
-
-    var testLexer = spy(new TestLexer<>(DemoLexer.class));
-    doReturn(new IncrementalTokenStream(testLexer.getLexer()))
-      .when(testLexer).getTokensStream(DemoLexer.DEFAULT_MODE, "");
-
-    doReturn(testLexer).when(testParser).getLexer();
+    var testParser = spyParser();
 
     // все варианты создания
     var testAsserts = List.of(
@@ -87,4 +96,247 @@ class TestParserTest {
       }
     );
   }
+
+  @Test
+  void testStartRule() {
+    var testParser = spyParser();
+
+    var testAsserts = List.of(
+      testParser.assertThatRule(1, ""),
+      testParser.assertThatRule("rule2", "")
+    );
+
+    testAsserts.forEach(parserAsserts -> {
+        assertThat(parserAsserts.matches()).isEqualTo(parserAsserts);
+        assertThat(parserAsserts.containsRule(0, 0)).isEqualTo(parserAsserts);
+        assertThat(parserAsserts.containsRule(1, 1)).isEqualTo(parserAsserts);
+        assertThrows(AssertionError.class, parserAsserts::noMatches);
+      }
+    );
+
+    assertThrows(IllegalArgumentException.class, () -> testParser.assertThatRule("unknown", ""));
+  }
+
+  @Test
+  void testRetainedSize() {
+    var testParser = spyParser();
+
+    var parserAsserts = testParser.assertThat("");
+    var retainedSize = parserAsserts.retainedSize();
+    assertThat(retainedSize.getTotalBytes()).isPositive();
+    assertThat(retainedSize.getObjectCount()).isGreaterThanOrEqualTo(4);
+    assertThat(retainedSize.getBytesByRule()).containsOnlyKeys("rule1", "rule2", "rule3");
+
+    assertThat(parserAsserts.retainedBytesPerSourceByteAtMost(1_000_000)).isEqualTo(parserAsserts);
+    assertThrows(AssertionError.class, () -> parserAsserts.retainedBytesPerSourceByteAtMost(1));
+  }
+
+  @Test
+  void testSharedTokenStream() {
+    var testParser = new TestParser<>(DemoParser.class, DemoLexer.class);
+    var testParser2 = new TestParser<>(DemoEmptyParser.class, DemoLexer.class);
+    var tokenStream = new IncrementalTokenStream(testParser.getLexer().getLexer());
+
+    var parserAsserts = testParser.assertThat(tokenStream);
+    assertThat(parserAsserts.matches(testParser.parser().rule1())).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.containsRule(1, 2)).isEqualTo(parserAsserts);
+    assertThat(testParser.parser().getInputStream()).isSameAs(tokenStream);
+
+    var parserAsserts2 = testParser.assertThat(tokenStream);
+    assertThat(parserAsserts2.containsRule(0, 1)).isEqualTo(parserAsserts2);
+
+    testParser2.assertThat(tokenStream);
+    assertThat(testParser2.parser().getInputStream()).isSameAs(tokenStream);
+  }
+
+  @Test
+  void testNoMatchesFailFast() {
+    var testParser = spyParser();
+
+    var parserAsserts = testParser.assertThat("");
+    assertThat(parserAsserts.getSyntaxError()).isNull();
+
+    assertThat(parserAsserts.noMatches(2)).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.getSyntaxError()).isNotNull();
+    assertThat(parserAsserts.getSyntaxError().getException()).isNotNull();
+    assertThat(parserAsserts.getSyntaxError().getRuleStack()).isEmpty();
+
+    assertThrows(AssertionError.class, () -> parserAsserts.noMatches(0));
+    assertThrows(IllegalArgumentException.class, () -> parserAsserts.noMatches(5));
+  }
+
+  @Test
+  void testNoMatchesWithoutTree() {
+    var testParser = spyParser();
+
+    var parserAsserts = testParser.assertThat("").noMatches(2);
+    verify(testParser, times(1)).parseRule(any(), eq(2));
+    verify(testParser, never()).parseRule(any(), eq(0));
+
+    parserAsserts.containsRule(1, 2);
+    verify(testParser, times(1)).parseRule(any(), eq(0));
+  }
+
+  @Test
+  void testTreeCache() {
+    var testParser = spyParser();
+
+    var testLexer = testParser.getLexer();
+    assertThat(testParser.getTreeCacheSize()).isZero();
+    testParser.setTreeCacheSize(1024 * 1024);
+    testParser.assertThat("").containsRule(1, 2);
+    var parser = testParser.parser();
+
+    testParser.assertThat(DemoLexer.DEFAULT_MODE, "").containsRule(1, 2);
+    assertThat(testParser.parser()).isNotSameAs(parser);
+    assertThat(testParser.parser().getInputStream()).isSameAs(parser.getInputStream());
+    verify(testParser, times(1)).parseRule(any(), eq(0));
+
+    testParser.assertThatRule(1, "").containsRule(1, 1);
+    assertThat(testParser.parser()).isNotSameAs(parser);
+    verify(testLexer, times(1)).getTokensStream(DemoLexer.DEFAULT_MODE, "");
+
+    testParser.setTreeCacheSize(0);
+    testParser.assertThat("").containsRule(1, 2);
+    assertThat(testParser.parser()).isNotSameAs(parser);
+    verify(testLexer, times(2)).getTokensStream(DemoLexer.DEFAULT_MODE, "");
+  }
+
+  @Test
+  void testTreeCacheHitParser() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    testParser.setTreeCacheSize(1024 * 1024);
+    testParser.assertThat("first line\n").matches();
+
+    var parserAsserts = testParser.assertThat("first line\n");
+    assertThat(parserAsserts.matches(testParser.parser().file())).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.containsRule(DemoWordParser.RULE_word, 2)).isEqualTo(parserAsserts);
+  }
+
+  @Test
+  void testTrailingTokens() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+
+    testParser.assertThatRule(DemoWordParser.RULE_word, "first").matches();
+    assertThrows(AssertionError.class, () -> testParser.assertThatRule(DemoWordParser.RULE_word, "first").noMatches());
+
+    // рул word не заканчивается EOF и читает только первое слово
+    var parserAsserts = testParser.assertThatRule(DemoWordParser.RULE_word, "first second");
+    assertThrows(RecognitionException.class, parserAsserts::matches);
+    assertThat(parserAsserts.noMatches()).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.getSyntaxError()).isNull();
+  }
+
+  @Test
+  void testRecoveredErrors() {
+    var testParser = spy(new TestParser<>(DemoWordParser.class, DemoSplitLexer.class));
+    // ошибка, исправленная восстановлением внутри рула, видна только по счетчику ошибок парсера
+    doAnswer(invocation -> {
+      var ast = invocation.callRealMethod();
+      invocation.<Parser>getArgument(0).notifyErrorListeners("token recovered inline");
+      return ast;
+    }).when(testParser).parseRule(any(), anyInt());
+
+    var parserAsserts = testParser.assertThat("first line\n");
+    assertThrows(RecognitionException.class, parserAsserts::matches);
+  }
+
+  @Test
+  void testXPath() {
+    var testParser = spyParser();
+
+    var parserAsserts = testParser.assertThat("");
+    assertThat(parserAsserts.matchesXPath("//rule2", 2)).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.matchesXPath("//rule3", 1)).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.matchesXPath("/rule1/rule2", 2)).isEqualTo(parserAsserts);
+    assertThat(testParser.compileXPath("/rule1/rule2")).isSameAs(testParser.compileXPath("/rule1/rule2"));
+    assertThrows(AssertionError.class, () -> parserAsserts.matchesXPath("//rule2", 1));
+  }
+
+  @Test
+  void testXPathRetention() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    var parserAsserts = testParser.assertThatFile("words.txt");
+    assertThat(parserAsserts.matchesXPath("/file/line/word", 5)).isEqualTo(parserAsserts);
+
+    // выражение из кэша не удерживает парсер проверки и его токены
+    var xpath = testParser.compileXPath("/file/line/word");
+    assertThat(xpath).extracting("parser", InstanceOfAssertFactories.type(Parser.class))
+      .isNotSameAs(testParser.parser())
+      .satisfies(parser -> assertThat(parser.getInputStream().size()).isLessThanOrEqualTo(1));
+
+    var parserAsserts2 = testParser.assertThat("first\n");
+    assertThat(parserAsserts2.matchesXPath("/file/line/word", 1)).isEqualTo(parserAsserts2);
+  }
+
+  @Test
+  void testPattern() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    var parserAsserts = testParser.assertThatFile("words.txt");
+
+    assertThat(parserAsserts.matchesPattern("<WORD>", DemoWordParser.RULE_word, 4)).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.matchesPattern("<STRING>", DemoWordParser.RULE_word, 1)).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.matchesPattern("line", DemoWordParser.RULE_word, 2)).isEqualTo(parserAsserts);
+    assertThat(parserAsserts.matchesPattern("first", DemoWordParser.RULE_word)).isEqualTo(parserAsserts);
+    assertThrows(AssertionError.class, () -> parserAsserts.matchesPattern("third", DemoWordParser.RULE_word));
+    assertThrows(AssertionError.class, () -> parserAsserts.matchesPattern("<WORD>", DemoWordParser.RULE_word, 5));
+
+    var pattern = testParser.compilePattern(testParser.parser(), "<WORD>", DemoWordParser.RULE_word);
+    var pattern2 = testParser.compilePattern(testParser.parser(), "<WORD>", DemoWordParser.RULE_word);
+    assertThat(pattern2.getPatternTree()).isSameAs(pattern.getPatternTree());
+    assertThat(pattern2.getMatcher()).isNotSameAs(pattern.getMatcher());
+  }
+
+  @Test
+  void testMeasureCost() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+    testParser.assertThatFile("words.txt").matches().containsRule(DemoWordParser.RULE_word, 5);
+
+    var cost = testParser.measureCost("words.txt");
+    assertThat(cost.getTokens()).isEqualTo(11);
+    assertThat(cost.getDecisions()).isZero();
+    assertThat(cost.getLookahead()).isZero();
+    assertThat(cost.getFullContextFallbacks()).isZero();
+    assertThat(testParser.measureCost("words.txt")).isEqualTo(cost);
+  }
+
+  @Test
+  void testProfileRules() {
+    var testParser = new TestParser<>(DemoWordParser.class, DemoSplitLexer.class);
+
+    var profile = testParser.profileRules(List.of("words.txt"));
+    assertThat(profile.getFixtures()).containsOnlyKeys("words.txt");
+    assertThat(profile.getFixtures().get("words.txt"))
+      .extracting(RuleProfile.RuleTiming::getRule)
+      .containsExactlyInAnyOrder("file", "line", "word");
+    assertThat(profile.getFixtures().get("words.txt"))
+      .filteredOn(timing -> "word".equals(timing.getRule()))
+      .singleElement()
+      .satisfies(timing -> {
+        assertThat(timing.getInvocations()).isEqualTo(5);
+        assertThat(timing.getTokens()).isEqualTo(5);
+      });
+    assertThat(profile.getCorpus())
+      .filteredOn(timing -> "line".equals(timing.getRule()))
+      .singleElement()
+      .satisfies(timing -> {
+        assertThat(timing.getInvocations()).isEqualTo(2);
+        assertThat(timing.getTokens()).isEqualTo(10);
+        assertThat(timing.getInclusiveNanos()).isGreaterThanOrEqualTo(timing.getExclusiveNanos());
+      });
+  }
+
+  /**
+   * Тестовый парсер, лексер которого возвращает пустой поток токенов
+   */
+  private static TestParser<DemoParser, DemoLexer> spyParser() {
+    var testParser = spy(new TestParser<>(DemoParser.class, DemoLexer.class));
+
+    var testLexer = spy(new TestLexer<>(DemoLexer.class));
+    doReturn(new IncrementalTokenStream(testLexer.getLexer()))
+      .when(testLexer).getTokensStream(DemoLexer.DEFAULT_MODE, "");
+
+    doReturn(testLexer).when(testParser).getLexer();
+    return testParser;
+  }
 }
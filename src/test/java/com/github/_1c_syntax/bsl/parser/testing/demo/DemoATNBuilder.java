@@ -0,0 +1,99 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing.demo;
+
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.ATNType;
+import org.antlr.v4.runtime.atn.AtomTransition;
+import org.antlr.v4.runtime.atn.BasicState;
+import org.antlr.v4.runtime.atn.EpsilonTransition;
+import org.antlr.v4.runtime.atn.RangeTransition;
+import org.antlr.v4.runtime.atn.RuleStartState;
+import org.antlr.v4.runtime.atn.RuleStopState;
+import org.antlr.v4.runtime.atn.RuleTransition;
+import org.antlr.v4.runtime.atn.SetTransition;
+import org.antlr.v4.runtime.misc.IntervalSet;
+
+/**
+ * Построитель ATN рукописных демонстрационных грамматик. Строит только состояния и переходы,
+ * без состояний решений, поэтому ATN подходит для обхода (генерации текстов), но не для предсказания
+ */
+final class DemoATNBuilder {
+  private final ATN atn;
+
+  DemoATNBuilder(ATNType grammarType, int maxTokenType, int ruleCount) {
+    atn = new ATN(grammarType, maxTokenType);
+    atn.ruleToStartState = new RuleStartState[ruleCount];
+    atn.ruleToStopState = new RuleStopState[ruleCount];
+    for (var rule = 0; rule < ruleCount; rule++) {
+      var start = new RuleStartState();
+      start.ruleIndex = rule;
+      atn.addState(start);
+      var stop = new RuleStopState();
+      stop.ruleIndex = rule;
+      atn.addState(stop);
+      start.stopState = stop;
+      atn.ruleToStartState[rule] = start;
+      atn.ruleToStopState[rule] = stop;
+    }
+  }
+
+  RuleStartState start(int rule) {
+    return atn.ruleToStartState[rule];
+  }
+
+  RuleStopState stop(int rule) {
+    return atn.ruleToStopState[rule];
+  }
+
+  ATNState state(int rule) {
+    var state = new BasicState();
+    state.ruleIndex = rule;
+    atn.addState(state);
+    return state;
+  }
+
+  void epsilon(ATNState from, ATNState to) {
+    from.addTransition(new EpsilonTransition(to));
+  }
+
+  void atom(ATNState from, ATNState to, int symbol) {
+    from.addTransition(new AtomTransition(to, symbol));
+  }
+
+  void range(ATNState from, ATNState to, int first, int last) {
+    from.addTransition(new RangeTransition(to, first, last));
+  }
+
+  void set(ATNState from, ATNState to, int... symbols) {
+    from.addTransition(new SetTransition(to, new IntervalSet(symbols)));
+  }
+
+  void call(ATNState from, int rule, ATNState follow) {
+    from.addTransition(new RuleTransition(start(rule), rule, 0, follow));
+  }
+
+  ATN build() {
+    return atn;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing.demo;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNType;
+import org.antlr.v4.runtime.atn.BasicBlockStartState;
+import org.antlr.v4.runtime.atn.BlockEndState;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+
+/**
+ * Парсер с единственным решением LL(1) над токенами {@link DemoSplitLexer}: choice : WORD | STRING.
+ * Методов рулов нет: тесты воспроизводят действия сгенерированного кода в состоянии решения
+ */
+public class DemoDecisionParser extends Parser {
+  public static final String[] ruleNames = new String[]{"choice"};
+
+  private static final ATN ATN_INSTANCE = createATN();
+
+  /**
+   * Состояние решения рула choice
+   */
+  public static final int DECISION_STATE = ATN_INSTANCE.decisionToState.get(0).stateNumber;
+
+  public DemoDecisionParser(TokenStream input) {
+    super(input);
+    _interp = new ParserATNSimulator(this, ATN_INSTANCE);
+  }
+
+  @Override
+  public String[] getTokenNames() {
+    return new String[]{"<INVALID>", "WORD", "WS", "NL", "STRING"};
+  }
+
+  @Override
+  public String[] getRuleNames() {
+    return ruleNames;
+  }
+
+  @Override
+  public String getGrammarFileName() {
+    return null;
+  }
+
+  private static ATN createATN() {
+    var builder = new DemoATNBuilder(ATNType.PARSER, DemoSplitLexer.STRING, ruleNames.length);
+    var atn = builder.build();
+
+    var block = new BasicBlockStartState();
+    block.ruleIndex = 0;
+    atn.addState(block);
+    var blockEnd = new BlockEndState();
+    blockEnd.ruleIndex = 0;
+    atn.addState(blockEnd);
+    block.endState = blockEnd;
+    blockEnd.startState = block;
+    atn.defineDecisionState(block);
+
+    var word = builder.state(0);
+    var string = builder.state(0);
+    builder.epsilon(builder.start(0), block);
+    builder.epsilon(block, word);
+    builder.epsilon(block, string);
+    builder.atom(word, blockEnd, DemoSplitLexer.WORD);
+    builder.atom(string, blockEnd, DemoSplitLexer.STRING);
+    builder.epsilon(blockEnd, builder.stop(0));
+    return atn;
+  }
+}
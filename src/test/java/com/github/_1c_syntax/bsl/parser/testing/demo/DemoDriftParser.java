@@ -0,0 +1,92 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing.demo;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.RuleVersion;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Парсер, результат которого меняется после заданного количества созданных экземпляров.
+ * Нужен для проверки обнаружения расхождений в нагрузочном прогоне
+ */
+public class DemoDriftParser extends Parser {
+
+  public static final String[] ruleNames = new String[]{"file"};
+
+  private static final AtomicInteger CREATED = new AtomicInteger();
+  private static volatile int stableInstances = Integer.MAX_VALUE;
+
+  private final boolean drifted;
+
+  public DemoDriftParser(TokenStream input) {
+    super(input);
+    drifted = CREATED.incrementAndGet() > stableInstances;
+  }
+
+  /**
+   * Сбрасывает счетчик экземпляров: первые {@code stable} экземпляров разбирают текст одинаково,
+   * последующие добавляют в дерево лишний узел
+   */
+  public static void driftAfter(int stable) {
+    CREATED.set(0);
+    stableInstances = stable;
+  }
+
+  @Override
+  public String[] getTokenNames() {
+    return new String[0];
+  }
+
+  @Override
+  public String[] getRuleNames() {
+    return ruleNames;
+  }
+
+  @Override
+  public String getGrammarFileName() {
+    return null;
+  }
+
+  @Override
+  public void reset() {
+    // no op
+  }
+
+  @RuleVersion(0)
+  public final ParserRuleContext file() throws RecognitionException {
+    var ctx = new ParserRuleContext();
+    while (_input.LA(1) != Token.EOF) {
+      ctx.addChild(_input.LT(1));
+      _input.consume();
+    }
+    if (drifted) {
+      ctx.addChild(_input.LT(1));
+    }
+    return ctx;
+  }
+}
@@ -34,7 +34,7 @@ import java.util.List;
 
 public class DemoParser extends Parser {
 
-  public static final String[] ruleNames = new String[]{"rule1", "rule2"};
+  public static final String[] ruleNames = new String[]{"rule1", "rule2", "rule3"};
 
   public DemoParser(TokenStream input) {
     super(input);
@@ -70,6 +70,19 @@ public class DemoParser extends Parser {
     return new DemoRuleContext(1);
   }
 
+  @RuleVersion(0)
+  public final ParserRuleContext rule3() throws RecognitionException {
+    var ctx = new ParserRuleContext();
+    try {
+      throw new RecognitionException(this, getInputStream(), ctx);
+    } catch (RecognitionException re) {
+      ctx.exception = re;
+      _errHandler.reportError(this, re);
+      _errHandler.recover(this, re);
+    }
+    return ctx;
+  }
+
   private static final class DemoRuleContext extends ParserRuleContext {
 
     private final List<ParseTree> children;
@@ -0,0 +1,189 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing.demo;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNType;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * Рукописный лексер для проверки параллельного и потокового чтения: слова, пробелы, переводы строк
+ * и строки в кавычках, которые могут занимать несколько строк текста. ATN лексером не используется:
+ * он описывает упрощенные правила (WORD : [a-z]+; WS : ' '; NL : '\n'; STRING : '"' [a-z]* '"')
+ * для генерации текстов
+ */
+public class DemoSplitLexer extends Lexer {
+  public static final int WORD = 1;
+  public static final int WS = 2;
+  public static final int NL = 3;
+  public static final int STRING = 4;
+
+  private static final ATN ATN_INSTANCE = createATN();
+
+  private int line = 1;
+  private int column;
+
+  public DemoSplitLexer(CharStream input) {
+    super(input);
+    _interp = new LexerATNSimulator(this, ATN_INSTANCE);
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    line = 1;
+    column = 0;
+  }
+
+  @Override
+  public Token nextToken() {
+    var input = getInputStream();
+    var marker = input.mark();
+    try {
+      return readToken(input);
+    } finally {
+      input.release(marker);
+    }
+  }
+
+  private Token readToken(CharStream input) {
+    var start = input.index();
+    var startLine = line;
+    var startColumn = column;
+
+    int type;
+    var character = input.LA(1);
+    if (character == IntStream.EOF) {
+      type = Token.EOF;
+      _hitEOF = true;
+    } else if (character == '\n') {
+      consume(input);
+      type = NL;
+    } else if (character == ' ') {
+      while (input.LA(1) == ' ') {
+        consume(input);
+      }
+      type = WS;
+    } else if (character == '"') {
+      consume(input);
+      while (input.LA(1) != '"' && input.LA(1) != IntStream.EOF) {
+        consume(input);
+      }
+      if (input.LA(1) == '"') {
+        consume(input);
+      }
+      type = STRING;
+    } else {
+      while (input.LA(1) != ' ' && input.LA(1) != '\n' && input.LA(1) != '"' && input.LA(1) != IntStream.EOF) {
+        consume(input);
+      }
+      type = WORD;
+    }
+
+    var text = type == Token.EOF ? "<EOF>" : input.getText(Interval.of(start, input.index() - 1));
+    var token = new CommonToken(type, text);
+    token.setChannel(type == WS ? Token.HIDDEN_CHANNEL : Token.DEFAULT_CHANNEL);
+    token.setStartIndex(start);
+    token.setStopIndex(input.index() - 1);
+    token.setLine(startLine);
+    token.setCharPositionInLine(startColumn);
+    return token;
+  }
+
+  @Override
+  public void setLine(int line) {
+    this.line = line;
+  }
+
+  @Override
+  public void setCharPositionInLine(int charPositionInLine) {
+    this.column = charPositionInLine;
+  }
+
+  @Override
+  public String[] getRuleNames() {
+    return new String[0];
+  }
+
+  @Override
+  public String[] getTokenNames() {
+    return new String[]{"<INVALID>", "WORD", "WS", "NL", "STRING"};
+  }
+
+  @Override
+  public String getGrammarFileName() {
+    return null;
+  }
+
+  private static ATN createATN() {
+    var builder = new DemoATNBuilder(ATNType.LEXER, STRING, 4);
+    builder.build().ruleToTokenType = new int[]{WORD, WS, NL, STRING};
+
+    var letter = builder.state(0);
+    var letters = builder.state(0);
+    builder.epsilon(builder.start(0), letter);
+    builder.range(letter, letters, 'a', 'z');
+    builder.epsilon(letters, letter);
+    builder.epsilon(letters, builder.stop(0));
+
+    atom(builder, 1, ' ');
+    atom(builder, 2, '\n');
+
+    var open = builder.state(3);
+    var body = builder.state(3);
+    var letterInString = builder.state(3);
+    var close = builder.state(3);
+    var closed = builder.state(3);
+    builder.epsilon(builder.start(3), open);
+    builder.atom(open, body, '"');
+    builder.epsilon(body, letterInString);
+    builder.epsilon(body, close);
+    builder.range(letterInString, body, 'a', 'z');
+    builder.atom(close, closed, '"');
+    builder.epsilon(closed, builder.stop(3));
+    return builder.build();
+  }
+
+  private static void atom(DemoATNBuilder builder, int rule, int symbol) {
+    var before = builder.state(rule);
+    var after = builder.state(rule);
+    builder.epsilon(builder.start(rule), before);
+    builder.atom(before, after, symbol);
+    builder.epsilon(after, builder.stop(rule));
+  }
+
+  private void consume(CharStream input) {
+    if (input.LA(1) == '\n') {
+      line++;
+      column = 0;
+    } else {
+      column++;
+    }
+    input.consume();
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is a part of BSL Parser Testing.
+ *
+ * Copyright (c) 2023-2025
+ * 1c-syntax team and Valery Maximov <maximovvalery@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser Testing is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser Testing is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser Testing.
+ */
+package com.github._1c_syntax.bsl.parser.testing.demo;
+
+import org.antlr.v4.runtime.NoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.RuleVersion;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNType;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+
+/**
+ * Рукописный парсер токенов {@link DemoSplitLexer}, который действительно читает поток токенов:
+ * file : line* EOF; line : (word | WS)* NL; word : WORD | STRING.
+ * ATN описывает ту же грамматику для генерации текстов, но без состояний решений: парсер его не использует,
+ * поэтому решений предсказания нет, а состояния вызова рулов не задаются
+ */
+public class DemoWordParser extends Parser {
+  public static final int RULE_file = 0;
+  public static final int RULE_line = 1;
+  public static final int RULE_word = 2;
+
+  public static final String[] ruleNames = new String[]{"file", "line", "word"};
+
+  private static final ATN ATN_INSTANCE = createATN();
+  private static final ATN PATTERN_ATN = createPatternATN();
+
+  public DemoWordParser(TokenStream input) {
+    super(input);
+    _interp = new ParserATNSimulator(this, ATN_INSTANCE);
+  }
+
+  @Override
+  public String[] getTokenNames() {
+    return new String[]{"<INVALID>", "WORD", "WS", "NL", "STRING"};
+  }
+
+  @Override
+  public String[] getRuleNames() {
+    return ruleNames;
+  }
+
+  @Override
+  public String getGrammarFileName() {
+    return null;
+  }
+
+  @Override
+  public void reset() {
+    // при создании парсера симулятор еще не задан
+    if (getInterpreter() != null) {
+      super.reset();
+    }
+  }
+
+  @RuleVersion(0)
+  public final ParserRuleContext file() throws RecognitionException {
+    var ctx = new DemoWordContext(_ctx, RULE_file);
+    enterRule(ctx, 0, RULE_file);
+    try {
+      while (_input.LA(1) != EOF) {
+        line();
+      }
+    } catch (RecognitionException re) {
+      recover(ctx, re);
+    } finally {
+      exitRule();
+    }
+    return ctx;
+  }
+
+  @RuleVersion(0)
+  public final ParserRuleContext line() throws RecognitionException {
+    var ctx = new DemoWordContext(_ctx, RULE_line);
+    enterRule(ctx, 1, RULE_line);
+    try {
+      while (true) {
+        var type = _input.LA(1);
+        if (type == DemoSplitLexer.WORD || type == DemoSplitLexer.STRING) {
+          word();
+        } else if (type == DemoSplitLexer.WS) {
+          consume();
+        } else {
+          break;
+        }
+      }
+      if (_input.LA(1) != DemoSplitLexer.NL) {
+        throw new NoViableAltException(this);
+      }
+      consume();
+    } catch (RecognitionException re) {
+      recover(ctx, re);
+    } finally {
+      exitRule();
+    }
+    return ctx;
+  }
+
+  @RuleVersion(0)
+  public final ParserRuleContext word() throws RecognitionException {
+    var ctx = new DemoWordContext(_ctx, RULE_word);
+    enterRule(ctx, 2, RULE_word);
+    try {
+      var type = _input.LA(1);
+      if (type != DemoSplitLexer.WORD && type != DemoSplitLexer.STRING) {
+        throw new NoViableAltException(this);
+      }
+      consume();
+    } catch (RecognitionException re) {
+      recover(ctx, re);
+    } finally {
+      exitRule();
+    }
+    return ctx;
+  }
+
+  /**
+   * ATN для компиляции шаблонов деревьев: интерпретатор разбирает только рул word, записанный без решения.
+   * Правил-обходов нет, поэтому в шаблонах допустимы лишь теги токенов
+   */
+  @Override
+  public ATN getATNWithBypassAlts() {
+    return PATTERN_ATN;
+  }
+
+  private static ATN createPatternATN() {
+    var builder = new DemoATNBuilder(ATNType.PARSER, DemoSplitLexer.STRING, ruleNames.length);
+    builder.epsilon(builder.start(RULE_file), builder.stop(RULE_file));
+    builder.epsilon(builder.start(RULE_line), builder.stop(RULE_line));
+    var word = builder.state(RULE_word);
+    var wordEnd = builder.state(RULE_word);
+    builder.epsilon(builder.start(RULE_word), word);
+    builder.set(word, wordEnd, DemoSplitLexer.WORD, DemoSplitLexer.STRING);
+    builder.epsilon(wordEnd, builder.stop(RULE_word));
+    return builder.build();
+  }
+
+  private static ATN createATN() {
+    var builder = new DemoATNBuilder(ATNType.PARSER, DemoSplitLexer.STRING, ruleNames.length);
+
+    var lines = builder.state(RULE_file);
+    var end = builder.state(RULE_file);
+    var ended = builder.state(RULE_file);
+    builder.epsilon(builder.start(RULE_file), lines);
+    builder.call(lines, RULE_line, lines);
+    builder.epsilon(lines, end);
+    builder.atom(end, ended, EOF);
+    builder.epsilon(ended, builder.stop(RULE_file));
+
+    var items = builder.state(RULE_line);
+    var space = builder.state(RULE_line);
+    var newLine = builder.state(RULE_line);
+    var lineEnd = builder.state(RULE_line);
+    builder.epsilon(builder.start(RULE_line), items);
+    builder.call(items, RULE_word, items);
+    builder.epsilon(items, space);
+    builder.epsilon(items, newLine);
+    builder.atom(space, items, DemoSplitLexer.WS);
+    builder.atom(newLine, lineEnd, DemoSplitLexer.NL);
+    builder.epsilon(lineEnd, builder.stop(RULE_line));
+
+    var word = builder.state(RULE_word);
+    var wordEnd = builder.state(RULE_word);
+    builder.epsilon(builder.start(RULE_word), word);
+    builder.atom(word, wordEnd, DemoSplitLexer.WORD);
+    builder.atom(word, wordEnd, DemoSplitLexer.STRING);
+    builder.epsilon(wordEnd, builder.stop(RULE_word));
+    return builder.build();
+  }
+
+  private void recover(ParserRuleContext ctx, RecognitionException re) {
+    ctx.exception = re;
+    _errHandler.reportError(this, re);
+    _errHandler.recover(this, re);
+  }
+
+  private static final class DemoWordContext extends ParserRuleContext {
+    private final int ruleIndex;
+
+    DemoWordContext(ParserRuleContext parent, int ruleIndex) {
+      // без состояния вызова: в пустом ATN его нет
+      super(parent, -1);
+      this.ruleIndex = ruleIndex;
+    }
+
+    @Override
+    public int getRuleIndex() {
+      return ruleIndex;
+    }
+  }
+}